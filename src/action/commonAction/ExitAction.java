@@ -2,12 +2,28 @@ package action.commonAction;
 
 import java.util.Map;
 
+import exception.DataSaveError;
 import interfaces.IAction;
 import model.User;
+import repository.PersistenceManager;
+import util.SessionIO;
+import view.BaseView;
 
 public class ExitAction implements IAction {
     @Override
     public String execute(Map<String, Object> services, Map<String, Object> views, User currentUser, Map<String, Object> controllerData) {
+        // A remote session only ends its own connection; the server keeps running for the others
+        if (!SessionIO.isConsole()) return "EXIT";
+
+        // Final flush of any write-behind changes before the process exits
+        PersistenceManager persistenceManager = (PersistenceManager) services.get("persistence");
+        if (persistenceManager != null) {
+            try {
+                persistenceManager.shutdown();
+            } catch (DataSaveError e) {
+                ((BaseView) views.get("base")).displayMessage(e.getMessage(), true, false, false);
+            }
+        }
         return "EXIT";
     }
-}
\ No newline at end of file
+}
@@ -1,12 +1,24 @@
 package action.commonAction;
 import java.util.Map;
 
+import exception.DataSaveError;
 import interfaces.IAction;
 import model.User;
+import repository.PersistenceManager;
+import view.BaseView;
 
 public class LogoutAction implements IAction {
     @Override
     public String execute(Map<String, Object> services, Map<String, Object> views, User currentUser, Map<String, Object> controllerData) {
+        // Make sure this session's write-behind changes are on disk before handing over the terminal
+        PersistenceManager persistenceManager = (PersistenceManager) services.get("persistence");
+        if (persistenceManager != null) {
+            try {
+                persistenceManager.flushAll();
+            } catch (DataSaveError e) {
+                ((BaseView) views.get("base")).displayMessage(e.getMessage(), true, false, false);
+            }
+        }
         return "LOGOUT";
     }
 }
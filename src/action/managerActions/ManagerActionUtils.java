@@ -4,7 +4,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 import interfaces.IAction;
+import common.ApplicationStatus;
 import common.RegistrationStatus;
 import interfaces.IUserRepository;
 import model.Application;
@@ -46,11 +48,11 @@ public class ManagerActionUtils {
         BaseView baseView = (BaseView) views.get("base");
         ProjectService projectService = (ProjectService) services.get("project");
 
-        List<Project> myProjects = projectService.getProjectsByManager(manager.getNric());
-        List<Registration> pendingRegs = new ArrayList<>();
-        for (Project project : myProjects) {
-            pendingRegs.addAll(regService.getRegistrationsForProject(project.getProjectName(), RegistrationStatus.PENDING));
-        }
+        List<String> myProjectNames = projectService.getProjectsByManager(manager.getNric()).stream()
+                .map(Project::getProjectName)
+                .collect(Collectors.toList());
+        // One indexed lookup across all of the manager's projects
+        List<Registration> pendingRegs = regService.getRegistrationsForProjects(myProjectNames, RegistrationStatus.PENDING);
 
         if (pendingRegs.isEmpty()) {
             baseView.displayMessage("No pending officer registrations found for your projects.", false, true, false);
@@ -71,8 +73,7 @@ public class ManagerActionUtils {
         List<Project> myProjects = projectService.getProjectsByManager(manager.getNric());
         List<Application> pendingApps = new ArrayList<>();
         for (Project project : myProjects) {
-            List<Application> apps = appService.getApplicationsForProject(project.getProjectName());
-            pendingApps.addAll(apps.stream().filter(app -> app.getStatus() == ApplicationStatus.PENDING && !app.isRequestWithdrawal()).collect(Collectors.toList()));
+            pendingApps.addAll(appService.getApplicationsForProject(project.getProjectName(), ApplicationStatus.PENDING, false));
         }
 
         if (pendingApps.isEmpty()) {
@@ -93,8 +94,7 @@ public class ManagerActionUtils {
         List<Project> myProjects = projectService.getProjectsByManager(manager.getNric());
         List<Application> appsWithRequest = new ArrayList<>();
         for (Project project : myProjects) {
-            List<Application> apps = appService.getApplicationsForProject(project.getProjectName());
-            appsWithRequest.addAll(apps.stream().filter(app -> app.isRequestWithdrawal()).collect(Collectors.toList()));
+            appsWithRequest.addAll(appService.getApplicationsForProject(project.getProjectName(), null, true));
         }
 
         if (appsWithRequest.isEmpty()) {
@@ -105,27 +105,16 @@ public class ManagerActionUtils {
     }
 }
 
-    // Helper function to get enquiries for the manager
-    public static List<Enquiry> getEnquiriesForManager(HDBManager manager, EnquiryService enquiryService, ProjectService projectService, UserRepositoryFacade userRepository) {
+    // Helper function to get enquiries for the manager's projects, in ID order; optionally only those awaiting a reply
+    public static List<Enquiry> getEnquiriesForManager(HDBManager manager, EnquiryService enquiryService, ProjectService projectService, boolean unrepliedOnly) {
         Set<String> handledNames = new HashSet<>(projectService.getHandledProjectNamesForManager(manager.getNric()));
-        List<Enquiry> relevant = new ArrayList<>();
-        if (handledNames.isEmpty()) return relevant;
-
-        for (Enquiry enq : enquiryService.getAllEnquiries()) {
-            Optional<String> projectNameOpt = Optional.ofNullable(enq.getProjectName());
-            if (projectNameOpt.isPresent() && handledNames.contains(projectNameOpt.get())) {
-                Optional<User> applicantOpt = userRepository.findUserByNric(enq.getApplicantNric());
-                
-                // Use the `orElse` method to provide a fallback value if the applicant is not found
-                String applicantName = applicantOpt.map(User::getName).orElse("Unknown");
-                
-                relevant.add(enq);
-            }
-        }
-
-
+        if (handledNames.isEmpty()) return new ArrayList<>();
+        return unrepliedOnly ? enquiryService.getUnrepliedEnquiriesForProjects(handledNames)
+                             : enquiryService.getEnquiriesForProjects(handledNames);
+    }
 
-        return relevant;
+    public static List<Enquiry> getEnquiriesForManager(HDBManager manager, EnquiryService enquiryService, ProjectService projectService, UserRepositoryFacade userRepository) {
+        return getEnquiriesForManager(manager, enquiryService, projectService, false);
     }
 
     // Helper function to prepare receipt data for an application
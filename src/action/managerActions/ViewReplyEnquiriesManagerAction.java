@@ -3,7 +3,6 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 import interfaces.IAction;
 import service.ApplicationService;
 import service.ProjectService;
@@ -62,10 +61,8 @@ public class ViewReplyEnquiriesManagerAction implements IAction {
             return null;
         }
 
-        List<Enquiry> unreplied = relevantData.stream()
-                .filter(enq -> !enq.getFirst().isReplied())
-                .map(Tuple::getFirst)
-                .collect(Collectors.toList());
+        List<Enquiry> unreplied = ManagerActionUtils.getEnquiriesForManager(
+            (HDBManager) currentUser, enqService, projectService, true);
 
         baseView.displayMessage("Enquiries for Projects You Manage:", true, false, false);
         for (Tuple<Enquiry, String> entry : relevantData) {
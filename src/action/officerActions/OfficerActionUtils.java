@@ -2,33 +2,27 @@ package action.officerActions;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.ArrayList;
-import interfaces.IUserRepository;
 import service.EnquiryService;
 import service.ProjectService;
 import model.HDBOfficer;
 import model.Enquiry;
-import model.User;
 
 public class OfficerActionUtils {
 
     public static List<Enquiry> getEnquiriesForOfficer(HDBOfficer officer, Map<String, Object> services) {
+        return getEnquiriesForOfficer(officer, services, false);
+    }
+
+    // Enquiries for the projects the officer handles, in ID order; optionally only those awaiting a reply
+    public static List<Enquiry> getEnquiriesForOfficer(HDBOfficer officer, Map<String, Object> services, boolean unrepliedOnly) {
         EnquiryService enqService = (EnquiryService) services.get("enq");
         ProjectService projectService = (ProjectService) services.get("project");
-        IUserRepository userRepo = (IUserRepository) services.get("user");
-
-        List<String> handledNames = projectService.getHandledProjectNamesForOfficer(officer.getNric());
-        List<Enquiry> relevant = new ArrayList<>();
 
-        if (!handledNames.isEmpty()) {
-            for (Enquiry enq : enqService.getAllEnquiries()) {
-                if (handledNames.contains(enq.getProjectName())) {
-                    User applicant = userRepo.findUserByNric(enq.getApplicantNric());
-                    String applicantName = (applicant != null) ? applicant.getName() : "Unknown";
-                    relevant.add(enq); // You can adjust this if needed to include applicantName
-                }
-            }
-        }
-        return relevant;
+        Set<String> handledNames = projectService.getHandledProjectNamesForOfficer(officer.getNric());
+        if (handledNames.isEmpty()) return new ArrayList<>();
+        return unrepliedOnly ? enqService.getUnrepliedEnquiriesForProjects(handledNames)
+                             : enqService.getEnquiriesForProjects(handledNames);
     }
-}
\ No newline at end of file
+}
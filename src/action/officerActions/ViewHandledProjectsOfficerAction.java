@@ -1,6 +1,8 @@
 package action.officerActions;
 import java.util.Map;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.Comparator;
 
@@ -32,9 +34,10 @@ public class ViewHandledProjectsOfficerAction implements IAction {
         ProjectView projectView = (ProjectView) views.get("project");
         BaseView baseView = (BaseView) views.get("base");
 
-        List<String> handledNames = projectService.getHandledProjectNamesForOfficer(((HDBOfficer) currentUser).getNric());
-        List<Project> handledProjects = projectService.getAllProjects().stream()
-                .filter(p -> handledNames.contains(p.getProjectName()))
+        Set<String> handledNames = projectService.getHandledProjectNamesForOfficer(((HDBOfficer) currentUser).getNric());
+        List<Project> handledProjects = handledNames.stream()
+                .map(projectService::findProjectByName)
+                .flatMap(Optional::stream)
                 .collect(Collectors.toList());
 
         if (handledProjects.isEmpty()) {
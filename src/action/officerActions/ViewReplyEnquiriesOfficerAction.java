@@ -3,7 +3,6 @@ package action.officerActions;
 
 import java.util.Map;
 import java.util.List;
-import java.util.stream.Collectors;
 import java.util.Comparator;
 
 import interfaces.IAction;
@@ -40,9 +39,7 @@ public class ViewReplyEnquiriesOfficerAction implements IAction {
             return null;
         }
 
-        List<Enquiry> unreplied = relevantData.stream()
-                .filter(e -> !e.isReplied())
-                .collect(Collectors.toList());
+        List<Enquiry> unreplied = OfficerActionUtils.getEnquiriesForOfficer((HDBOfficer) currentUser, services, true);
 
         baseView.displayMessage("Enquiries for Projects You Handle:", false, true, false);
         for (Enquiry enquiry : relevantData) {
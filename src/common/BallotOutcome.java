@@ -0,0 +1,43 @@
+package common;
+
+// Result of balloting one flat type of one project: how many applications entered, how many were drawn,
+// and how many were left alone because they stopped being pending, or got a withdrawal request, before the results were saved
+public class BallotOutcome {
+    private final String projectName;
+    private final FlatType flatType;
+    private final int entrants;
+    private final int successful;
+    private final int skipped;
+
+    public BallotOutcome(String projectName, FlatType flatType, int entrants, int successful, int skipped) {
+        this.projectName = projectName;
+        this.flatType = flatType;
+        this.entrants = entrants;
+        this.successful = successful;
+        this.skipped = skipped;
+    }
+
+    public String getProjectName() {
+        return projectName;
+    }
+
+    public FlatType getFlatType() {
+        return flatType;
+    }
+
+    public int getEntrants() {
+        return entrants;
+    }
+
+    public int getSuccessful() {
+        return successful;
+    }
+
+    public int getSkipped() {
+        return skipped;
+    }
+
+    public int getUnsuccessful() {
+        return entrants - successful - skipped;
+    }
+}
@@ -0,0 +1,34 @@
+package common;
+
+// Outcome of one item in a batch operation: whether it succeeded and, if not, why
+public class BatchItemResult<T> {
+    private final T item;
+    private final boolean success;
+    private final String message;
+
+    public BatchItemResult(T item, boolean success, String message) {
+        this.item = item;
+        this.success = success;
+        this.message = message;
+    }
+
+    public static <T> BatchItemResult<T> succeeded(T item, String message) {
+        return new BatchItemResult<>(item, true, message);
+    }
+
+    public static <T> BatchItemResult<T> failed(T item, String message) {
+        return new BatchItemResult<>(item, false, message);
+    }
+
+    public T getItem() {
+        return item;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
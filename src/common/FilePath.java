@@ -7,7 +7,8 @@ public enum FilePath {
     PROJECT("data/ProjectList.csv"),
     APPLICATION("data/ApplicationData.csv"),
     REGISTRATION("data/RegistrationData.csv"),
-    ENQUIRY("data/EnquiryData.csv");
+    ENQUIRY("data/EnquiryData.csv"),
+    TRANSACTION("data/Transactions.journal");
 
     private final String path;
 
@@ -0,0 +1,81 @@
+package common;
+
+import util.NricCodec;
+import util.StringDictionary;
+
+/**
+ * Key of a record that belongs to one person in one project, such as an application or an officer registration.
+ * Unlike a concatenated {@code nric + "-" + projectName} string it cannot be ambiguous when a project name
+ * contains '-', and it keeps the NRIC packed in a long, the project name canonical and the hash precomputed.
+ *
+ * For lookups, {@link #probe} fills in a key reused by the calling thread, so finding a record allocates nothing.
+ * A probe must never be stored, e.g. as a map key.
+ */
+public final class NricProjectKey {
+
+    private static final ThreadLocal<NricProjectKey> PROBE = ThreadLocal.withInitial(NricProjectKey::new);
+
+    private long nricCode;
+    private String nric; // Only kept for NRICs that NricCodec cannot encode
+    private String projectName;
+    private int hash;
+
+    private NricProjectKey() {
+    }
+
+    /**
+     * @return A new key, safe to store.
+     */
+    public static NricProjectKey of(String nric, String projectName) {
+        if (nric == null || projectName == null) {
+            throw new IllegalArgumentException("NRIC and project name must be provided.");
+        }
+        return new NricProjectKey().set(nric, StringDictionary.canonical(projectName));
+    }
+
+    /**
+     * @return This thread's reusable key, set to the given values; only valid until the thread's next probe.
+     */
+    public static NricProjectKey probe(String nric, String projectName) {
+        return PROBE.get().set(nric, projectName);
+    }
+
+    private NricProjectKey set(String nric, String projectName) {
+        long code = NricCodec.encode(nric);
+        this.nricCode = code;
+        this.nric = code == NricCodec.NOT_ENCODABLE ? nric : null;
+        this.projectName = projectName;
+        this.hash = 31 * (code == NricCodec.NOT_ENCODABLE ? nric.hashCode() : Long.hashCode(code)) + projectName.hashCode();
+        return this;
+    }
+
+    public String getNric() {
+        return nric != null ? nric : NricCodec.decode(nricCode);
+    }
+
+    public String getProjectName() {
+        return projectName;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof NricProjectKey)) return false;
+        NricProjectKey other = (NricProjectKey) obj;
+        return hash == other.hash
+            && nricCode == other.nricCode
+            && (nric == null ? other.nric == null : nric.equals(other.nric))
+            && projectName.equals(other.projectName); // Identity for canonical names, so usually no character compare
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    // Same text as the former string key, so messages such as "Duplicate key found" read as before
+    @Override
+    public String toString() {
+        return getNric() + "-" + projectName;
+    }
+}
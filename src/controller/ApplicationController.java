@@ -1,8 +1,9 @@
 package controller;
 
+import java.util.Map;
+
+import common.UserRole;
 import service.AuthService;
-import service.ApplicationService;
-import service.ProjectService;
 import view.BaseView;
 import view.AuthView;
 import model.User;
@@ -15,8 +16,10 @@ public class ApplicationController {
     private Map<String, Object> _services;
     private Map<String, Object> _views;
 
-    public ApplicationController() {
-        // Initialize services and views
+    // Services and views are shared by every session; the logged-in user and role controller belong to this one
+    public ApplicationController(Map<String, Object> services, Map<String, Object> views) {
+        this._services = services;
+        this._views = views;
     }
 
     public void run() {
@@ -26,7 +29,12 @@ public class ApplicationController {
                     break;
                 }
             } else {
-                _roleController.runMenu();
+                String result = _roleController.runMenu();
+                if ("LOGOUT".equals(result)) {
+                    handleLogout();
+                } else if ("EXIT".equals(result)) {
+                    break;
+                }
             }
         }
     }
@@ -38,10 +46,14 @@ public class ApplicationController {
         BaseView baseView = (BaseView) _views.get("base");
 
         // Attempt login
-        String nric = authView.promptForNric();
-        String password = authView.promptForPassword();
+        String[] credentials = authView.promptLogin();
 
-        _currentUser = authService.login(nric, password);
+        try {
+            _currentUser = authService.login(credentials[0], credentials[1]);
+        } catch (OperationError e) {
+            baseView.displayMessage("Login failed: " + e.getMessage(), true, false, false);
+            return false;
+        }
 
         if (_currentUser != null) {
             // Set the correct role controller based on the user role
@@ -49,10 +61,12 @@ public class ApplicationController {
                 _roleController = new ApplicantController(_currentUser, _services, _views);
             } else if (_currentUser.getRole() == UserRole.HDB_OFFICER) {
                 _roleController = new OfficerController(_currentUser, _services, _views);
+            } else if (_currentUser.getRole() == UserRole.HDB_MANAGER) {
+                _roleController = new ManagerController(_currentUser, _services, _views);
             }
             return true;
         } else {
-            baseView.displayMessage("Login failed", true);
+            baseView.displayMessage("Login failed", true, false, false);
             return false;
         }
     }
@@ -5,6 +5,7 @@ import view.BaseView;
 import interfaces.IAction;
 import exception.OperationError;
 import exception.IntegrityError;
+import exception.SessionClosedError;
 import action.;
 
 import java.util.*;
@@ -66,6 +67,8 @@ public abstract class BaseRoleController {
                 return selectedAction.execute(services, views, currentUser, controllerData);
             } catch (OperationError | IntegrityError e) {
                 baseView.displayMessage(e.getMessage(), true, false, false);
+            } catch (SessionClosedError e) {
+                throw e; // The session is over; let the server end it
             } catch (Exception e) {
                 baseView.displayMessage("An unexpected error occurred: " + e.getMessage(), true, false, false);
             }
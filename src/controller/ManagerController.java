@@ -24,6 +24,8 @@ public class ManagerController extends BaseRoleController {
         actions.put("View Applications (Project)", this::handleViewApplications);
         actions.put("Approve Application", this::handleApproveApplication);
         actions.put("Reject Application", this::handleRejectApplication);
+        actions.put("Bulk Approve/Reject Applications", this::handleBulkProcessApplications);
+        actions.put("Run Ballot (Managed Projects)", this::handleRunBallot);
         actions.put("Approve Withdrawal Request", this::handleApproveWithdrawal);
         actions.put("Reject Withdrawal Request", this::handleRejectWithdrawal);
         actions.put("--- Reporting & Enquiries ---", () -> {});
@@ -46,6 +48,8 @@ public class ManagerController extends BaseRoleController {
                 actionMethod.run(); // Execute selected action
             } catch (OperationError | IntegrityError e) {
                 baseView.displayMessage(e.getMessage(), true);
+            } catch (SessionClosedError e) {
+                throw e; // The session is over; let the server end it
             } catch (Exception e) {
                 baseView.displayMessage("An unexpected error occurred: " + e.getMessage(), true);
             }
@@ -264,6 +268,71 @@ public class ManagerController extends BaseRoleController {
         }
     }
 
+    private void handleBulkProcessApplications() {
+        ApplicationService appService = (ApplicationService) this.services.get("app");
+        BaseView baseView = (BaseView) this.views.get("base");
+
+        String decision = InputUtil.getChoiceInput("Approve or reject (approve/reject)", List.of("approve", "reject"));
+        boolean approve = decision.equals("approve");
+
+        // Limit the batch to one project and flat type, or leave either open
+        Project project = null;
+        if (InputUtil.getYesNoInput("Limit to a single project?")) {
+            project = selectManagedProject("bulk " + decision);
+            if (project == null) return;
+        }
+        FlatType flatType = null;
+        if (InputUtil.getYesNoInput("Limit to a single flat type?")) {
+            String choice = InputUtil.getChoiceInput("Flat type (2/3)", List.of("2", "3"));
+            flatType = FlatType.fromValue(Integer.parseInt(choice));
+        }
+
+        String projectName = project == null ? null : project.getProjectName();
+        FlatType selectedType = flatType;
+        Predicate<Application> filter = app ->
+                (projectName == null || projectName.equals(app.getProjectName()))
+                && (selectedType == null || selectedType == app.getFlatType());
+
+        String scope = (projectName == null ? "all your projects" : "'" + projectName + "'")
+                + (selectedType == null ? "" : " (" + selectedType + " only)");
+        if (!InputUtil.getYesNoInput("Confirm " + decision + " of all pending applications in " + scope + "?")) return;
+
+        List<BatchItemResult<Application>> results = appService.managerBulkProcessApplications((HDBManager) this.currentUser, filter, approve);
+        if (results.isEmpty()) {
+            baseView.displayMessage("No pending applications matched.", false);
+            return;
+        }
+
+        int succeeded = 0;
+        for (BatchItemResult<Application> result : results) {
+            Application app = result.getItem();
+            baseView.displayMessage(app.getApplicantNric() + " (" + app.getProjectName() + ", " + app.getFlatType() + "): "
+                    + result.getMessage(), !result.isSuccess());
+            if (result.isSuccess()) succeeded++;
+        }
+        baseView.displayMessage(succeeded + " of " + results.size() + " applications " + (approve ? "approved." : "rejected."), false);
+    }
+
+    private void handleRunBallot() {
+        BallotService ballotService = (BallotService) this.services.get("ballot");
+        BaseView baseView = (BaseView) this.views.get("base");
+
+        // Running again with the same seed over the same applications reproduces the draw
+        int seed = InputUtil.getValidIntegerInput("Enter ballot seed", 0, null);
+        if (!InputUtil.getYesNoInput("Settle all pending applications in your projects by ballot with seed " + seed + "?")) return;
+
+        List<BallotOutcome> outcomes = ballotService.runBallot((HDBManager) this.currentUser, seed);
+        if (outcomes.isEmpty()) {
+            baseView.displayMessage("No pending applications to ballot.", false);
+            return;
+        }
+        for (BallotOutcome outcome : outcomes) {
+            baseView.displayMessage(outcome.getProjectName() + " (" + outcome.getFlatType() + "): " + outcome.getEntrants()
+                    + " entrants, " + outcome.getSuccessful() + " successful, " + outcome.getUnsuccessful() + " unsuccessful"
+                    + (outcome.getSkipped() > 0 ? ", " + outcome.getSkipped() + " changed meanwhile and left as they were." : "."), false);
+        }
+    }
+
     private void handleApproveWithdrawal() {
         ApplicationService appService = (ApplicationService) this.services.get("app");
         BaseView baseView = (BaseView) this.views.get("base");
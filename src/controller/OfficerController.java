@@ -1,6 +1,9 @@
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 public class OfficerController extends ApplicantController {
 
@@ -109,10 +112,11 @@ public class OfficerController extends ApplicantController {
         ProjectView projectView = (ProjectView) this.views.get("project");
         BaseView baseView = (BaseView) this.views.get("base");
 
-        List<String> handledProjectNames = projectService.getHandledProjectNamesForOfficer(this.currentUser.getNric());
-        List<Project> handledProjects = projectService.getAllProjects().stream()
-                .filter(p -> handledProjectNames.contains(p.getProjectName()))
-                .toList();
+        Set<String> handledProjectNames = projectService.getHandledProjectNamesForOfficer(this.currentUser.getNric());
+        List<Project> handledProjects = handledProjectNames.stream()
+                .map(projectService::findProjectByName)
+                .flatMap(Optional::stream)
+                .collect(Collectors.toList());
 
         if (handledProjects.isEmpty()) {
             baseView.displayMessage("You are not currently assigned to handle any projects.");
@@ -130,7 +134,7 @@ public class OfficerController extends ApplicantController {
         EnquiryService enqService = (EnquiryService) this.services.get("enq");
         ProjectService projectService = (ProjectService) this.services.get("project");
 
-        List<String> handledProjectNames = projectService.getHandledProjectNamesForOfficer(this.currentUser.getNric());
+        Set<String> handledProjectNames = projectService.getHandledProjectNamesForOfficer(this.currentUser.getNric());
         List<Enquiry> relevantEnquiries = enqService.getAllEnquiries().stream()
             .filter(enq -> handledProjectNames.contains(enq.getProjectName()))
             .toList();
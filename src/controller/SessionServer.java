@@ -0,0 +1,112 @@
+package controller;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import exception.SessionClosedError;
+import util.SessionIO;
+
+/**
+ * Serves many users from one process over a local socket. Each connection is a session with its own
+ * {@link ApplicationController} (and so its own user, role controller and controller data) running on
+ * a virtual thread; the services and views passed in are shared by all sessions.
+ *
+ * Virtual threads are kept rather than a bounded platform pool because no per-write fsync runs inside a
+ * monitor any more: repositories and transactions append under their locks and wait for the group commit
+ * after releasing them, and the group commit itself waits on a ReentrantLock. What still blocks inside a
+ * monitor, and so pins the carrier on JDK 21 to 23, is rare: a repository's first load, and the snapshot
+ * written when a journal is compacted.
+ *
+ * The protocol is plain UTF-8 lines: the server writes the same text the console would show, and each
+ * line the client sends answers the prompt that is waiting for input.
+ */
+public class SessionServer implements AutoCloseable {
+
+    private final Map<String, Object> _services;
+    private final Map<String, Object> _views;
+    private final ServerSocket _serverSocket;
+    private final ExecutorService _sessions = Executors.newVirtualThreadPerTaskExecutor();
+    private final Set<Socket> _connections = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Binds to the loopback interface only, so the server is not reachable from other machines.
+     * @param port The port to listen on, or 0 for any free port.
+     * @throws IOException If the port cannot be bound.
+     */
+    public SessionServer(Map<String, Object> services, Map<String, Object> views, int port) throws IOException {
+        this._services = services;
+        this._views = views;
+        this._serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+    }
+
+    public int getPort() {
+        return _serverSocket.getLocalPort();
+    }
+
+    public int getActiveSessionCount() {
+        return _connections.size();
+    }
+
+    /**
+     * Accepts connections until {@link #close()} is called, starting a session for each.
+     */
+    public void serve() {
+        System.out.println("Listening for sessions on port " + getPort() + ".");
+        while (!_serverSocket.isClosed()) {
+            try {
+                Socket socket = _serverSocket.accept();
+                _connections.add(socket);
+                _sessions.execute(() -> runSession(socket));
+            } catch (SocketException e) {
+                // Server socket closed by close()
+            } catch (IOException e) {
+                System.out.println("Warning: Failed to accept a session: " + e.getMessage());
+            }
+        }
+    }
+
+    private void runSession(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             PrintStream out = new PrintStream(socket.getOutputStream(), true, StandardCharsets.UTF_8)) {
+            SessionIO.bind(new SessionIO(in, out));
+            new ApplicationController(_services, _views).run();
+            out.println("Goodbye.");
+        } catch (SessionClosedError | IOException e) {
+            // Client disconnected
+        } catch (RuntimeException e) {
+            System.out.println("Warning: Session ended by an unexpected error: " + e.getMessage());
+        } finally {
+            SessionIO.unbind();
+            _connections.remove(socket);
+        }
+    }
+
+    /**
+     * Stops accepting sessions and disconnects the open ones. Saving the shared repositories is left to the caller.
+     */
+    @Override
+    public void close() throws IOException {
+        _serverSocket.close();
+        for (Socket socket : _connections) {
+            try {
+                socket.close(); // Unblocks the session's pending read
+            } catch (IOException e) {
+                System.out.println("Warning: Failed to close a session: " + e.getMessage());
+            }
+        }
+        _sessions.shutdown();
+    }
+}
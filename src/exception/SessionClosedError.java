@@ -0,0 +1,7 @@
+package exception;
+
+public class SessionClosedError extends RuntimeException {
+    public SessionClosedError(String message) {
+        super(message);
+    }
+}
@@ -3,9 +3,11 @@ package interfaces;
 import java.util.List;
 import java.util.Optional;
 
+import common.ApplicationStatus;
+import common.NricProjectKey;
 import model.Application;
 
-public interface IApplicationRepository extends IBaseRepository<Application, String> {
+public interface IApplicationRepository extends IBaseRepository<Application, NricProjectKey> {
 
     // Finds the current non-unsuccessful application for an applicant
     Optional<Application> findByApplicantNric(String nric);
@@ -15,4 +17,7 @@ public interface IApplicationRepository extends IBaseRepository<Application, Str
 
     // Finds all applications associated with a specific project
     List<Application> findByProjectName(String projectName);
+
+    // Finds a project's applications with the given status and withdrawal flag; a null filter matches any value
+    List<Application> findByProjectName(String projectName, ApplicationStatus statusFilter, Boolean withdrawalFilter);
 }
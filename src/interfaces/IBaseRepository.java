@@ -7,9 +7,12 @@ import exception.IntegrityError;
 
 public interface IBaseRepository<T, K> {
 
-    // Returns a list of all items
+    // Returns a list of all items; it may be a shared read-only list, so copy it before changing it
     List<T> getAll();
 
+    // Returns a counter that increases on every stored change, including updates of items changed in place; for caching derived data
+    long getVersion();
+
     // Finds an item by its primary key
     Optional<T> findByKey(K key);
 
@@ -25,6 +28,9 @@ public interface IBaseRepository<T, K> {
     // Persists the current state of the repository's data to storage
     void save();
 
+    // Writes any mutations buffered in write-behind mode to storage
+    void flush();
+
     // Loads data from storage into the repository
     void load();
 }
@@ -1,5 +1,6 @@
 package interfaces;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,10 +17,13 @@ public interface IEnquiryRepository extends IBaseRepository<Enquiry, Integer> {
     // Finds all enquiries related to a specific project
     List<Enquiry> findByProject(String projectName);
 
+    // Finds the enquiries for any of the given projects in ID order, optionally only those not yet replied to
+    List<Enquiry> findByProjects(Collection<String> projectNames, boolean unrepliedOnly);
+
     // Alias for delete for clarity
     void deleteById(int enquiryId);
 
-    // Gets the next available ID for a new enquiry
-    int getNextId();
+    // Reserves a new, never reused ID for an enquiry about to be added
+    int allocateId();
 }
 
@@ -1,7 +1,9 @@
 package interfaces;
 
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import model.Project;
 
@@ -12,4 +14,13 @@ public interface IProjectRepository extends IBaseRepository<Project, String> {
 
     // Finds all projects managed by a specific manager
     List<Project> findByManagerNric(String managerNric);
+
+    // Returns the names of the projects an officer is rostered on; the returned set is read-only
+    Set<String> findProjectNamesByOfficer(String officerNric);
+
+    // Finds the manager's projects whose application window overlaps the given dates (inclusive)
+    List<Project> findOverlappingByManager(String managerNric, Date openingDate, Date closingDate);
+
+    // Finds the projects an officer is rostered on whose application window overlaps the given dates (inclusive)
+    List<Project> findOverlappingByOfficer(String officerNric, Date openingDate, Date closingDate);
 }
@@ -1,12 +1,14 @@
 package interfaces;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import common.NricProjectKey;
 import common.RegistrationStatus;
 import model.Registration;
 
-public interface IRegistrationRepository extends IBaseRepository<Registration, String> {
+public interface IRegistrationRepository extends IBaseRepository<Registration, NricProjectKey> {
 
     // Finds a specific registration by officer and project
     Optional<Registration> findByOfficerAndProject(String officerNric, String projectName);
@@ -16,5 +18,8 @@ public interface IRegistrationRepository extends IBaseRepository<Registration, S
 
     // Finds registrations for a project, optionally filtered by status
     List<Registration> findByProject(String projectName, RegistrationStatus statusFilter);
+
+    // Finds registrations for any of the given projects, optionally filtered by status
+    List<Registration> findByProjects(Collection<String> projectNames, RegistrationStatus statusFilter);
 }
 
@@ -4,6 +4,7 @@ import common.ApplicationStatus;
 import common.Displayable;
 import common.FlatType;
 import util.InputUtil;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Map;
 import exception.DataLoadError;
@@ -16,6 +17,19 @@ public class Application implements Displayable{
         "ApplicantNRIC", "ProjectName", "FlatType", "Status", "RequestWithdrawal" 
     };
 
+    // Allowed state transitions, built once rather than on every status change
+    private static final Map<ApplicationStatus, ApplicationStatus[]> ALLOWED_TRANSITIONS = new EnumMap<>(ApplicationStatus.class);
+    static {
+        ALLOWED_TRANSITIONS.put(ApplicationStatus.PENDING, new ApplicationStatus[] { 
+            ApplicationStatus.SUCCESSFUL, ApplicationStatus.UNSUCCESSFUL, ApplicationStatus.PENDING });
+        ALLOWED_TRANSITIONS.put(ApplicationStatus.SUCCESSFUL, new ApplicationStatus[] { 
+            ApplicationStatus.BOOKED, ApplicationStatus.UNSUCCESSFUL, ApplicationStatus.SUCCESSFUL });
+        ALLOWED_TRANSITIONS.put(ApplicationStatus.BOOKED, new ApplicationStatus[] { 
+            ApplicationStatus.UNSUCCESSFUL, ApplicationStatus.BOOKED });
+        ALLOWED_TRANSITIONS.put(ApplicationStatus.UNSUCCESSFUL, new ApplicationStatus[] { 
+            ApplicationStatus.UNSUCCESSFUL });
+    }
+
     private String applicantNric;
     private String projectName;
     private FlatType flatType;
@@ -63,20 +77,9 @@ public class Application implements Displayable{
             throw new IllegalArgumentException("Invalid status provided.");
         }
 
-        // Allowed state transitions
-        Map<ApplicationStatus, ApplicationStatus[]> allowedTransitions = new HashMap<>();
-        allowedTransitions.put(ApplicationStatus.PENDING, new ApplicationStatus[] { 
-            ApplicationStatus.SUCCESSFUL, ApplicationStatus.UNSUCCESSFUL, ApplicationStatus.PENDING });
-        allowedTransitions.put(ApplicationStatus.SUCCESSFUL, new ApplicationStatus[] { 
-            ApplicationStatus.BOOKED, ApplicationStatus.UNSUCCESSFUL, ApplicationStatus.SUCCESSFUL });
-        allowedTransitions.put(ApplicationStatus.BOOKED, new ApplicationStatus[] { 
-            ApplicationStatus.UNSUCCESSFUL, ApplicationStatus.BOOKED });
-        allowedTransitions.put(ApplicationStatus.UNSUCCESSFUL, new ApplicationStatus[] { 
-            ApplicationStatus.UNSUCCESSFUL });
-
         // Validate transition
         boolean validTransition = false;
-        for (ApplicationStatus validStatus : allowedTransitions.getOrDefault(this.status, new ApplicationStatus[] {})) {
+        for (ApplicationStatus validStatus : ALLOWED_TRANSITIONS.getOrDefault(this.status, new ApplicationStatus[] {})) {
             if (newStatus == validStatus) {
                 validTransition = true;
                 break;
@@ -3,12 +3,15 @@ package model;
 import common.FlatType;
 import common.Displayable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import exception.DataLoadError;
 import exception.OperationError;
 import util.InputUtil;
 import util.DateUtil;
+import util.DayClock;
+import util.StringDictionary;
 
 public class Project implements Displayable{
 
@@ -28,8 +31,9 @@ public class Project implements Displayable{
     private FlatType type2 = FlatType.THREE_ROOM;
     private int numUnits2;
     private int price2;
-    private Date openingDate;
-    private Date closingDate;
+    // Application window as epoch days, both inclusive
+    private int openingDay;
+    private int closingDay;
     private String managerNric;
     private int officerSlot;
     private List<String> officerNrics = new ArrayList<>();
@@ -39,15 +43,23 @@ public class Project implements Displayable{
     public Project(String projectName, String neighborhood, int numUnits1, int price1, 
                    int numUnits2, int price2, Date openingDate, Date closingDate, 
                    String managerNric, int officerSlot, List<String> officerNrics, boolean visibility) throws IllegalArgumentException {
+        this(projectName, neighborhood, numUnits1, price1, numUnits2, price2, toDay(openingDate), toDay(closingDate),
+             managerNric, officerSlot, officerNrics, visibility);
+    }
+
+    // Constructor taking the window as epoch days, as stored
+    public Project(String projectName, String neighborhood, int numUnits1, int price1,
+                   int numUnits2, int price2, long openingDay, long closingDay,
+                   String managerNric, int officerSlot, List<String> officerNrics, boolean visibility) throws IllegalArgumentException {
         if (projectName == null || projectName.isEmpty()) throw new IllegalArgumentException("Project Name cannot be empty");
         if (neighborhood == null || neighborhood.isEmpty()) throw new IllegalArgumentException("Neighborhood cannot be empty");
         if (managerNric == null || managerNric.isEmpty() || !InputUtil.validateNric(managerNric)) {
             throw new IllegalArgumentException("Invalid Manager NRIC: " + managerNric);
         }
-        if (openingDate == null || closingDate == null) {
+        if (openingDay != (int) openingDay || closingDay != (int) closingDay) { // Also rejects NO_DATE
             throw new IllegalArgumentException("Opening and Closing dates must be valid date objects.");
         }
-        if (closingDate.before(openingDate)) {
+        if (closingDay < openingDay) {
             throw new IllegalArgumentException("Closing date cannot be before opening date.");
         }
         if (officerSlot < 0 || officerSlot > 10) {
@@ -57,14 +69,15 @@ public class Project implements Displayable{
             throw new IllegalArgumentException("Numeric project values (units, price) cannot be negative.");
         }
 
-        this.projectName = projectName;
-        this.neighborhood = neighborhood;
+        // Shared with the rows that reference this project, see StringDictionary
+        this.projectName = StringDictionary.canonical(projectName);
+        this.neighborhood = StringDictionary.canonical(neighborhood);
         this.numUnits1 = numUnits1;
         this.price1 = price1;
         this.numUnits2 = numUnits2;
         this.price2 = price2;
-        this.openingDate = openingDate;
-        this.closingDate = closingDate;
+        this.openingDay = (int) openingDay;
+        this.closingDay = (int) closingDay;
         this.managerNric = managerNric;
         this.officerSlot = officerSlot;
         this.officerNrics = officerNrics != null ? officerNrics : new ArrayList<>();
@@ -75,24 +88,37 @@ public class Project implements Displayable{
         }
     }
 
+    private static long toDay(Date date) {
+        return date == null ? DateUtil.NO_DATE : DateUtil.toEpochDay(date);
+    }
+
     // --- Getters ---
     public String getProjectName() { return projectName; }
     public String getNeighborhood() { return neighborhood; }
-    public Date getOpeningDate() { return openingDate; }
-    public Date getClosingDate() { return closingDate; }
+    // Start of the day in the system time zone; a new Date each call, so hot paths use the epoch-day getters
+    public Date getOpeningDate() { return DateUtil.toDate(openingDay); }
+    public Date getClosingDate() { return DateUtil.toDate(closingDay); }
+    public int getOpeningDay() { return openingDay; }
+    public int getClosingDay() { return closingDay; }
     public String getManagerNric() { return managerNric; }
     public int getOfficerSlot() { return officerSlot; }
     public boolean isVisibility() { return visibility; }
     public List<String> getOfficerNrics() { return new ArrayList<>(officerNrics); }
+    // Read-only live view of the roster, for callers that only need to read it without a copy
+    public List<String> getOfficerNricsView() { return Collections.unmodifiableList(officerNrics); }
 
     // --- Calculated Properties / State Checks ---
     public boolean isActivePeriod(Date checkDate) {
-        if (checkDate == null) checkDate = new Date();
-        return !openingDate.after(checkDate) && !closingDate.before(checkDate);
+        return isActiveOn(checkDate == null ? DayClock.current().today() : DateUtil.toEpochDay(checkDate));
+    }
+
+    // Open for applications on the given epoch day, opening and closing days included
+    public boolean isActiveOn(long epochDay) {
+        return openingDay <= epochDay && epochDay <= closingDay;
     }
 
     public boolean isCurrentlyVisibleAndActive() {
-        return visibility && isActivePeriod(new Date());
+        return visibility && isActiveOn(DayClock.current().today());
     }
 
     public int[] getFlatDetails(FlatType flatType) {
@@ -138,6 +164,20 @@ public class Project implements Displayable{
         return false; // Invalid type
     }
 
+    // Sets the remaining units for a flat type; used by the flat inventory when a booking is committed
+    public void setUnitCount(FlatType flatType, int units) {
+        if (units < 0) {
+            throw new IllegalArgumentException("Unit count cannot be negative.");
+        }
+        if (flatType == FlatType.TWO_ROOM) {
+            numUnits1 = units;
+        } else if (flatType == FlatType.THREE_ROOM) {
+            numUnits2 = units;
+        } else {
+            throw new IllegalArgumentException("Invalid flat type: " + flatType);
+        }
+    }
+
     public boolean addOfficer(String officerNric) {
         if (!InputUtil.validateNric(officerNric)) {
             throw new IllegalArgumentException("Invalid NRIC format for officer.");
@@ -161,6 +201,12 @@ public class Project implements Displayable{
         this.visibility = visibility;
     }
 
+    // An independent copy, to edit without touching the instance a repository holds
+    public Project copy() {
+        return new Project(projectName, neighborhood, numUnits1, price1, numUnits2, price2, openingDay, closingDay,
+                managerNric, officerSlot, new ArrayList<>(officerNrics), visibility);
+    }
+
     public void updateDetails(Project updates) {
         // Basic validation before applying changes
         String newName = updates.getProjectName();
@@ -170,33 +216,32 @@ public class Project implements Displayable{
         int n2 = updates.numUnits2;
         int p2 = updates.price2;
         int slot = updates.officerSlot;
-        Date newOd = updates.getOpeningDate();
-        Date newCd = updates.getClosingDate();
+        int newOd = updates.openingDay;
+        int newCd = updates.closingDay;
 
         if (newName == null || newName.isEmpty()) throw new IllegalArgumentException("Project Name cannot be empty");
         if (newNeighborhood == null || newNeighborhood.isEmpty()) throw new IllegalArgumentException("Neighborhood cannot be empty");
         if (n1 < 0 || p1 < 0 || n2 < 0 || p2 < 0 || slot < 0) throw new IllegalArgumentException("Numeric values cannot be negative.");
         if (slot < 0 || slot > 10) throw new IllegalArgumentException("Officer slots must be between 0 and 10.");
         if (slot < officerNrics.size()) throw new IllegalArgumentException("Cannot reduce slots below current assigned officers.");
-        if (newOd == null || newCd == null) throw new IllegalArgumentException("Dates must be valid date objects.");
-        if (newCd.before(newOd)) throw new IllegalArgumentException("Closing date cannot be before opening date.");
+        if (newCd < newOd) throw new IllegalArgumentException("Closing date cannot be before opening date.");
 
         // Apply validated changes
-        this.projectName = newName;
-        this.neighborhood = newNeighborhood;
+        this.projectName = StringDictionary.canonical(newName);
+        this.neighborhood = StringDictionary.canonical(newNeighborhood);
         this.numUnits1 = n1;
         this.price1 = p1;
         this.numUnits2 = n2;
         this.price2 = p2;
         this.officerSlot = slot;
-        this.openingDate = newOd;
-        this.closingDate = newCd;
+        this.openingDay = newOd;
+        this.closingDay = newCd;
     }
 
     public String toCsvString() {
         return projectName + "," + neighborhood + "," + type1.toString() + "," + numUnits1 + "," + price1 + "," 
-                + type2.toString() + "," + numUnits2 + "," + price2 + "," + DateUtil.formatDate(openingDate) + "," 
-                + DateUtil.formatDate(closingDate) + "," + managerNric + "," + officerSlot + "," + String.join(",", officerNrics) 
+                + type2.toString() + "," + numUnits2 + "," + price2 + "," + DateUtil.formatEpochDay(openingDay) + "," 
+                + DateUtil.formatEpochDay(closingDay) + "," + managerNric + "," + officerSlot + "," + String.join(",", officerNrics) 
                 + "," + visibility;
     }
 
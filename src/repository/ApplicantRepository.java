@@ -1,29 +1,39 @@
 package repository;
 
-import java.util.HashMap;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
 
 import common.FilePath;
 import exception.DataLoadError;
 import model.Applicant;
 import storage.IStorageAdapter;
+import storage.RowCursor;
+import storage.RowWriter;
 
 public class ApplicantRepository extends BaseRepository<Applicant, String> {
 
+    // Column indexes into the header list below
+    private static final int NAME = 0;
+    private static final int NRIC = 1;
+    private static final int AGE = 2;
+    private static final int MARITAL_STATUS = 3;
+    private static final int PASSWORD = 4;
+
     public ApplicantRepository(IStorageAdapter storageAdapter) {
         super(storageAdapter, Applicant.class, FilePath.APPLICANT.getPath(), List.of("Name", "NRIC", "Age", "Marital Status", "Password"), Applicant::getNric);
+        enableSortedView(Comparator.comparing(Applicant::getNric));
     }
 
     @Override
-    protected Applicant createInstance(Map<String, Object> row) {
+    protected Applicant createInstance(RowCursor row) {
         try {
+            String password = row.getString(PASSWORD);
             return new Applicant(
-                (String) row.get("Name"),
-                (String) row.get("NRIC"),
-                Integer.parseInt((String) row.get("Age")),
-                (String) row.get("Marital Status"),
-                (String) row.getOrDefault("Password", "password") // Default password if missing
+                row.getString(NAME),
+                row.getString(NRIC),
+                row.getInt(AGE),
+                row.getString(MARITAL_STATUS),
+                password.isEmpty() ? "password" : password // Default password if missing
             );
         } catch (Exception e) {
             throw new DataLoadError("Error creating Applicant from row: " + row, e);
@@ -31,14 +41,12 @@ public class ApplicantRepository extends BaseRepository<Applicant, String> {
     }
 
     @Override
-    protected Map<String, Object> toStorageMap(Applicant item) {
-        Map<String, Object> map = new HashMap<>();
-        map.put("Name", item.getName());
-        map.put("NRIC", item.getNric());
-        map.put("Age", item.getAge());
-        map.put("Marital Status", item.getMaritalStatus());
-        map.put("Password", item.getPasswordForStorage());
-        return map;
+    protected void toStorageRow(Applicant item, RowWriter row) {
+        row.setString(NAME, item.getName())
+           .setString(NRIC, item.getNric())
+           .setInt(AGE, item.getAge())
+           .setString(MARITAL_STATUS, item.getMaritalStatus())
+           .setString(PASSWORD, item.getPasswordForStorage());
     }
 
     @Override
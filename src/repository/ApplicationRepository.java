@@ -1,43 +1,59 @@
 package repository;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 import java.util.Optional;
 import common.ApplicationStatus;
 import common.FilePath;
 import common.FlatType;
+import common.NricProjectKey;
 import exception.DataLoadError;
 import exception.IntegrityError;
 import interfaces.IApplicationRepository;
 import model.Application;
 import storage.IStorageAdapter;
+import storage.RowCursor;
+import storage.RowWriter;
+import util.NricMap;
 
-public class ApplicationRepository extends BaseRepository<Application, String> implements IApplicationRepository {
+public class ApplicationRepository extends BaseRepository<Application, NricProjectKey> implements IApplicationRepository {
+
+    // Column indexes into Application.HEADERS
+    private static final int APPLICANT_NRIC = 0;
+    private static final int PROJECT_NAME = 1;
+    private static final int FLAT_TYPE = 2;
+    private static final int STATUS = 3;
+    private static final int REQUEST_WITHDRAWAL = 4;
+
+    // Secondary indexes, keyed like data: applicant NRIC (encoded) -> applications, and project name -> (status, withdrawal) buckets
+    private final NricMap<Map<NricProjectKey, Application>> byApplicant = new NricMap<>();
+    private final Map<String, Map<NricProjectKey, Application>[]> byProject = new HashMap<>();
+    private final Map<NricProjectKey, Integer> indexedBucket = new HashMap<>();
 
 	public ApplicationRepository(IStorageAdapter storageAdapter) {
         super(storageAdapter, 
               Application.class, 
               FilePath.APPLICATION.getPath(), 
               Arrays.asList(Application.HEADERS),  // Convert String[] to List<String>
-              app -> app.getApplicantNric() + "-" + app.getProjectName());
+              app -> NricProjectKey.of(app.getApplicantNric(), app.getProjectName()));
     }
 
     @Override
-    protected Application createInstance(Map<String, Object> row) {
+    protected Application createInstance(RowCursor row) {
         // Create an Application instance based on data in the row
         try {
-            String applicantNric = (String) row.get("ApplicantNRIC");
-            String projectName = (String) row.get("ProjectName");
+            String applicantNric = row.getString(APPLICANT_NRIC);
+            String projectName = row.getSymbol(PROJECT_NAME);
 
             // Parse FlatType and ApplicationStatus
-            FlatType flatType = FlatType.fromValue(Integer.parseInt((String) row.get("FlatType")));  // Assuming FlatType is stored as an integer
-            ApplicationStatus status = ApplicationStatus.valueOf((String) row.get("Status"));
+            FlatType flatType = FlatType.fromValue(row.getInt(FLAT_TYPE));  // FlatType is stored as its room count
+            ApplicationStatus status = row.getEnum(STATUS, ApplicationStatus.class);
 
-            // Parse requestWithdrawal as boolean
-            boolean requestWithdrawal = Boolean.parseBoolean((String) row.get("RequestWithdrawal"));
+            boolean requestWithdrawal = row.getBoolean(REQUEST_WITHDRAWAL);
 
             // Return a new Application instance
             return new Application(applicantNric, projectName, flatType, status, requestWithdrawal);
@@ -47,51 +63,121 @@ public class ApplicationRepository extends BaseRepository<Application, String> i
     }
 
     @Override
-    protected Map<String, Object> toStorageMap(Application item) {
-        Map<String, Object> map = new HashMap<>();
-        map.put("ApplicantNRIC", item.getApplicantNric());
-        map.put("ProjectName", item.getProjectName());
-        map.put("FlatType", item.getFlatType().toString());  // Assuming the flatType is an enum and needs to be converted to string
-        map.put("Status", item.getStatus().toString());
-        map.put("RequestWithdrawal", String.valueOf(item.isRequestWithdrawal()));  // Convert boolean to String for storage
-        return map;
+    protected void toStorageRow(Application item, RowWriter row) {
+        row.setString(APPLICANT_NRIC, item.getApplicantNric())
+           .setString(PROJECT_NAME, item.getProjectName())
+           .setInt(FLAT_TYPE, item.getFlatType().getValue())  // Stored as the room count, matching createInstance
+           .setEnum(STATUS, item.getStatus())
+           .setBoolean(REQUEST_WITHDRAWAL, item.isRequestWithdrawal());
     }
 
     @Override
-    protected String getKey(Application item) {
-        return item.getApplicantNric() + "-" + item.getProjectName();
+    protected NricProjectKey getKey(Application item) {
+        return NricProjectKey.of(item.getApplicantNric(), item.getProjectName());
     }
 
     @Override
     public Optional<Application> findByApplicantNric(String nric) {
-    	load();
-        return data.values().stream()
-            .filter(app -> app.getApplicantNric().equals(nric) && app.getStatus() != ApplicationStatus.UNSUCCESSFUL)
-            .findFirst(); // returns Optional<Application>
+        // Walks the applicant's applications, so it takes the read lock rather than reading optimistically
+        return read(() -> {
+            Map<NricProjectKey, Application> apps = byApplicant.get(nric);
+            if (apps == null) return Optional.empty();
+            return apps.values().stream()
+                .filter(app -> app.getStatus() != ApplicationStatus.UNSUCCESSFUL)
+                .findFirst(); // returns Optional<Application>
+        });
     }
 
     @Override
     public List<Application> findAllByApplicantNric(String nric) {
-        load();
-        return data.values().stream()
-            .filter(app -> app.getApplicantNric().equals(nric))
-            .collect(Collectors.toList());
+        return read(() -> {
+            Map<NricProjectKey, Application> apps = byApplicant.get(nric);
+            return apps == null ? new ArrayList<>() : new ArrayList<>(apps.values());
+        });
     }
 
     @Override
     public List<Application> findByProjectName(String projectName) {
-        load();
-        return data.values().stream()
-            .filter(app -> app.getProjectName().equals(projectName))
-            .collect(Collectors.toList());
+        return findByProjectName(projectName, null, null);
+    }
+
+    @Override
+    public List<Application> findByProjectName(String projectName, ApplicationStatus statusFilter, Boolean withdrawalFilter) {
+        return read(() -> {
+            List<Application> result = new ArrayList<>();
+            Map<NricProjectKey, Application>[] buckets = byProject.get(projectName);
+            if (buckets == null) return result;
+            for (ApplicationStatus status : ApplicationStatus.values()) {
+                if (statusFilter != null && status != statusFilter) continue;
+                for (int withdrawal = 0; withdrawal < 2; withdrawal++) {
+                    if (withdrawalFilter != null && withdrawalFilter != (withdrawal == 1)) continue;
+                    Map<NricProjectKey, Application> bucket = buckets[bucketOf(status, withdrawal == 1)];
+                    if (bucket != null) result.addAll(bucket.values());
+                }
+            }
+            return result;
+        });
     }
 
     @Override
-    public void add(Application item) {
-        load();
-        if (findByApplicantNric(item.getApplicantNric()) != null) {
+    protected void checkAdd(NricProjectKey key, Application item) {
+        if (findByApplicantNric(item.getApplicantNric()).isPresent()) {
             throw new IntegrityError("Applicant " + item.getApplicantNric() + " already has an active application.");
         }
-        super.add(item);
+        super.checkAdd(key, item);
+    }
+
+    // Applications are mutated in place before update() is called, so the previous bucket is looked up
+    // from what was recorded when the item was last indexed rather than from the item itself
+    @Override
+    protected void onItemStored(NricProjectKey key, Application item) {
+        Integer previous = indexedBucket.get(key);
+        int bucket = bucketOf(item.getStatus(), item.isRequestWithdrawal());
+        Map<NricProjectKey, Application>[] buckets = projectBuckets(item.getProjectName());
+        if (previous != null) {
+            buckets[previous].remove(key);
+        }
+        bucketFor(buckets, bucket).put(key, item);
+        indexedBucket.put(key, bucket);
+        byApplicant.computeIfAbsent(item.getApplicantNric(), nric -> new LinkedHashMap<>()).put(key, item);
+    }
+
+    @Override
+    protected void onItemRemoved(NricProjectKey key, Application item) {
+        Integer previous = indexedBucket.remove(key);
+        Map<NricProjectKey, Application>[] buckets = byProject.get(item.getProjectName());
+        if (previous != null && buckets != null && buckets[previous] != null) {
+            buckets[previous].remove(key);
+        }
+        Map<NricProjectKey, Application> apps = byApplicant.get(item.getApplicantNric());
+        if (apps != null) {
+            apps.remove(key);
+            if (apps.isEmpty()) byApplicant.remove(item.getApplicantNric());
+        }
+    }
+
+    @Override
+    protected void rebuildIndexes() {
+        byApplicant.clear();
+        byProject.clear();
+        indexedBucket.clear();
+        for (Map.Entry<NricProjectKey, Application> entry : data.entrySet()) {
+            onItemStored(entry.getKey(), entry.getValue());
+        }
+    }
+
+    // One bucket per (status, withdrawal requested) pair
+    private static int bucketOf(ApplicationStatus status, boolean requestWithdrawal) {
+        return status.ordinal() * 2 + (requestWithdrawal ? 1 : 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<NricProjectKey, Application>[] projectBuckets(String projectName) {
+        return byProject.computeIfAbsent(projectName, name -> new Map[ApplicationStatus.values().length * 2]);
+    }
+
+    private static Map<NricProjectKey, Application> bucketFor(Map<NricProjectKey, Application>[] buckets, int bucket) {
+        if (buckets[bucket] == null) buckets[bucket] = new LinkedHashMap<>();
+        return buckets[bucket];
     }
-}
\ No newline at end of file
+}
@@ -1,22 +1,59 @@
 package repository;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 import common.RegistrationStatus;
+import common.Tuple;
 import exception.IntegrityError;
+import interfaces.IBaseRepository;
 import model.Project;
 import model.Registration;
 import storage.IStorageAdapter;
+import storage.RowCursor;
+import storage.RowWriter;
+import storage.TextRowCursor;
+import storage.WriteAheadJournal;
+import storage.WriteAheadJournal.Operation;
 
-public abstract class BaseRepository<T, K> {
+public abstract class BaseRepository<T, K> implements IBaseRepository<T, K> {
+
+    // The journal is folded into a full snapshot once it holds this many records, or as many as the table, whichever is larger
+    private static final int MIN_COMPACTION_RECORDS = 1000;
 
     protected IStorageAdapter storageAdapter;
     protected Class<T> modelClass;
     protected String sourceId;
     protected List<String> headers;
     protected Map<K, T> data;
-    protected boolean loaded;
+    protected volatile boolean loaded;
+    protected WriteAheadJournal journal;
+    private IStorageAdapter snapshotStore;
+
+    // Readers of data and the subclass indexes use this lock, optimistically where possible. Writers also hold the
+    // repository monitor, so writes stay serialized and UnitOfWork can lock several repositories through their monitors.
+    // StampedLock is not reentrant: finders must never be called while the write lock is held.
+    private final StampedLock lock = new StampedLock();
+
+    // Opt-in copy-on-write view: an immutable list of all items in viewOrder, replaced whenever the set of items changes
+    private Comparator<? super T> viewOrder;
+    private volatile List<T> view;
+    // Bumped after every change to the items is applied, under the write lock; see getVersion()
+    private volatile long version;
+
+    // Write-behind state: mutations are coalesced per key here until the next flush
+    private final Map<K, Tuple<Operation, T>> dirty = new LinkedHashMap<>();
+    private boolean writeBehind;
+    private int flushThreshold;
+    private Runnable flushRequest;
+
+    // Highest transaction whose rows this repository holds, and the highest whose rows are known to be on disk;
+    // the transaction journal can only be truncated once every repository has the two equal
+    private volatile long transactionId;
+    private volatile long syncedTransactionId;
 
     // Constructor
     public BaseRepository(IStorageAdapter storageAdapter, Class<T> modelClass, String sourceId, List<String> headers, Function<T, K> keyGetter) {
@@ -27,38 +64,65 @@ public abstract class BaseRepository<T, K> {
         this.modelClass = modelClass;
         this.sourceId = sourceId;
         this.headers = headers;
-        this.data = new HashMap<>();
+        this.data = new ConcurrentHashMap<>();
         this.loaded = false;
+        this.journal = new WriteAheadJournal(sourceId + ".journal", headers, storageAdapter.isDurable());
     }
 
-    // Method to create an instance of the model class from a row map
-    protected abstract T createInstance(Map<String, Object> row);
+    // Method to create an instance of the model class from the row under the cursor; columns are indexes into headers
+    protected abstract T createInstance(RowCursor row);
 
-    // Method to convert a model instance to a map for storage
-    protected abstract Map<String, Object> toStorageMap(T item);
+    // Method to write the fields of a model instance into a storage row
+    protected abstract void toStorageRow(T item, RowWriter row);
 
     // Load data from storage
-    public void load() {
+    public synchronized void load() {
         if (loaded) return;
 
+        long stamp = lock.writeLock();
         try {
-            List<Map<String, Object>> storageData = storageAdapter.readData(sourceId, headers).getFirst();
-            for (Map<String, Object> row : storageData) {
-                T instance = createInstance(row);
-                K key = getKey(instance);
-                data.put(key, instance);
+            if (!loadSnapshot()) {
+                storageAdapter.readRows(sourceId, headers, row -> {
+                    T instance = createInstance(row);
+                    data.put(getKey(instance), instance);
+                });
             }
+            replayJournal();
+            transactionId = journal.getTransactionId();
+            syncedTransactionId = transactionId;
+            rebuildIndexes();
+            if (viewOrder != null) publishView();
+            version++;
             loaded = true;
         } catch (Exception e) {
             // Handle error (log, rethrow custom exceptions, etc.)
             System.out.println("Error loading data: " + e.getMessage());
+        } finally {
+            lock.unlockWrite(stamp);
         }
     }
 
-    // Get all entries
+    // Get all entries; data is a concurrent map, so this needs no lock. With a sorted view enabled, the shared read-only view is returned as is
     public List<T> getAll() {
         if (!loaded) load();
-        return new ArrayList<>(data.values());
+        List<T> snapshot = view;
+        return snapshot != null ? snapshot : new ArrayList<>(data.values());
+    }
+
+    // Read before deriving data from the items: if it is unchanged afterwards, so are the items
+    public long getVersion() {
+        if (!loaded) load();
+        return version;
+    }
+
+    /**
+     * Makes {@link #getAll()} return one shared, immutable list in the given order instead of copying the
+     * items on every call. Every add, delete or replacement of an item publishes a new list, so this only
+     * suits repositories that are read far more often than they change. Call it from the constructor.
+     * @param order The order of the view. It must only depend on fields that are never changed in place, such as the key.
+     */
+    protected void enableSortedView(Comparator<? super T> order) {
+        this.viewOrder = order;
     }
 
     // Find by key
@@ -67,46 +131,356 @@ public abstract class BaseRepository<T, K> {
         return Optional.ofNullable(data.get(key));
     }
 
+    // Writers change the data and append to the journal under the monitor, then wait for the fsync outside it,
+    // so concurrent writers to one repository can share a single fsync
+
     // Add item
     public void add(T item) {
         if (!loaded) load();
-        K key = getKey(item);
-        if (data.containsKey(key)) {
-            throw new IntegrityError("Duplicate key found: " + key);
+        boolean journaled;
+        synchronized (this) {
+            K key = getKey(item);
+            checkAdd(key, item);
+            storeItem(key, item);
+            journaled = appendToJournal(Operation.ADD, item);
         }
-        data.put(key, item);
-        save();
+        if (journaled) journal.sync();
     }
 
     // Update item
     public void update(T item) {
         if (!loaded) load();
-        K key = getKey(item);
-        if (!data.containsKey(key)) {
-            throw new IntegrityError("Item not found: " + key);
+        boolean journaled;
+        synchronized (this) {
+            K key = getKey(item);
+            if (!data.containsKey(key)) {
+                throw new IntegrityError("Item not found: " + key);
+            }
+            storeItem(key, item);
+            journaled = appendToJournal(Operation.UPDATE, item);
         }
-        data.put(key, item);
-        save();
+        if (journaled) journal.sync();
     }
 
     // Delete item
     public void delete(K key) {
         if (!loaded) load();
-        if (!data.containsKey(key)) {
-            throw new IntegrityError("Item not found: " + key);
+        boolean journaled;
+        synchronized (this) {
+            if (!data.containsKey(key)) {
+                throw new IntegrityError("Item not found: " + key);
+            }
+            T removed = removeItem(key);
+            journaled = appendToJournal(Operation.DELETE, removed);
+        }
+        if (journaled) journal.sync();
+    }
+
+    // Rejects an item that add() must not store; called with the monitor held. By default only a taken key is rejected.
+    protected void checkAdd(K key, T item) {
+        if (data.containsKey(key)) {
+            throw new IntegrityError("Duplicate key found: " + key);
+        }
+    }
+
+    // Save a full snapshot to storage; the journal and any pending write-behind changes are no longer needed afterwards
+    public synchronized void save() {
+        if (!loaded) load();
+        storageAdapter.writeRows(sourceId, headers, data.values(), this::toStorageRow);
+        // The rows of every transaction so far are in the snapshot; the reset journal keeps the transaction ID
+        journal.setTransactionId(transactionId);
+        journal.truncate();
+        dirty.clear();
+        syncedTransactionId = transactionId;
+    }
+
+    // Write the current state to the snapshot store; the journal is kept, since replaying it over the snapshot is harmless
+    public synchronized void saveSnapshot() {
+        if (snapshotStore == null || !loaded) return;
+        snapshotStore.writeRows(sourceId, headers, data.values(), this::toStorageRow);
+    }
+
+    /**
+     * Sets a secondary store (e.g. a binary snapshot) that is preferred on load whenever it is newer than the primary source.
+     * @param snapshotStore The snapshot store, or null to always load from the primary storage adapter.
+     */
+    public synchronized void setSnapshotStore(IStorageAdapter snapshotStore) {
+        this.snapshotStore = snapshotStore;
+    }
+
+    // Write all pending write-behind changes as a single journal append
+    public void flush() {
+        synchronized (this) {
+            if (!writeDirty()) return;
+        }
+        journal.sync();
+    }
+
+    // Appends the pending write-behind changes; returns true if the caller must sync the journal once unlocked
+    private synchronized boolean writeDirty() {
+        if (dirty.isEmpty()) return false;
+        if (journal.getRecordCount() + dirty.size() >= compactionThreshold()) {
+            save();
+            return false;
         }
-        data.remove(key);
-        save();
+        List<Tuple<Operation, String[]>> records = new ArrayList<>(dirty.size());
+        RowWriter row = new RowWriter(headers.size());
+        for (Tuple<Operation, T> change : dirty.values()) {
+            records.add(new Tuple<>(change.getFirst(), encode(change.getSecond(), row)));
+        }
+        // Rows of transactions may be among them, so the transaction ID goes along
+        journal.appendAll(records, transactionId);
+        dirty.clear();
+        return true;
     }
 
-    // Save changes to storage
-    public void save() {
+    /**
+     * Switches between write-through and write-behind persistence.
+     * @param enabled True to buffer mutations until {@link #flush()} is called.
+     * @param threshold Number of dirty keys at which {@code onThresholdReached} is invoked.
+     * @param onThresholdReached Callback asking the owner to schedule a flush; may be null.
+     */
+    public synchronized void setWriteBehind(boolean enabled, int threshold, Runnable onThresholdReached) {
+        if (!enabled) flush();
+        this.writeBehind = enabled;
+        this.flushThreshold = threshold;
+        this.flushRequest = onThresholdReached;
+    }
+
+    public synchronized boolean isDirty() {
+        return !dirty.isEmpty();
+    }
+
+    // --- Transaction support for UnitOfWork and TransactionManager ---
+
+    String getSourceId() {
+        return sourceId;
+    }
+
+    K keyOf(T item) {
+        return getKey(item);
+    }
+
+    boolean containsKeyInMemory(K key) {
+        if (!loaded) load();
+        return data.containsKey(key);
+    }
+
+    T getInMemory(K key) {
+        if (!loaded) load();
+        return data.get(key);
+    }
+
+    String[] encodeRow(T item) {
+        return encode(item, new RowWriter(headers.size()));
+    }
+
+    // Rebuilds an item from a storage row in header order, e.g. a copy taken before the item was changed in place
+    T decode(String[] row) {
+        return createInstance(TextRowCursor.over(headers, row));
+    }
+
+    // Applies a change to the in-memory data and indexes only, without persisting it; returns the item the key mapped to before
+    synchronized T applyInMemory(Operation operation, K key, T item) {
         if (!loaded) load();
-        List<Map<String, Object>> storageData = new ArrayList<>();
-        for (T item : data.values()) {
-            storageData.add(toStorageMap(item));
+        return operation == Operation.DELETE ? removeItem(key) : storeItem(key, item);
+    }
+
+    /**
+     * Persists changes a committed transaction has already applied in memory, as one journal append followed by
+     * the transaction ID. The append is not synced: the transaction journal holds the durable copy of the rows
+     * until {@link #syncTransactions()} runs at the next checkpoint.
+     */
+    synchronized void persistCommitted(List<Tuple<Operation, T>> changes, long transactionId) {
+        this.transactionId = Math.max(this.transactionId, transactionId);
+        if (writeBehind) {
+            for (Tuple<Operation, T> change : changes) {
+                appendToJournal(change.getFirst(), change.getSecond());
+            }
+            return;
         }
-        storageAdapter.writeData(sourceId, headers, storageData);
+        // A batch that would trigger compaction anyway goes straight to the snapshot, as in flush()
+        if (journal.getRecordCount() + changes.size() >= compactionThreshold()) {
+            save();
+            return;
+        }
+        List<Tuple<Operation, String[]>> records = new ArrayList<>(changes.size());
+        RowWriter row = new RowWriter(headers.size());
+        for (Tuple<Operation, T> change : changes) {
+            records.add(new Tuple<>(change.getFirst(), encode(change.getSecond(), row)));
+        }
+        journal.appendAll(records, this.transactionId);
+    }
+
+    // Writes out any buffered transaction rows and waits until they are on disk; call without holding the monitor
+    void syncTransactions() {
+        long id;
+        synchronized (this) {
+            writeDirty();
+            id = transactionId;
+        }
+        journal.sync();
+        synchronized (this) {
+            syncedTransactionId = Math.max(syncedTransactionId, id);
+        }
+    }
+
+    // Lock-free, so the transaction manager can ask while it holds its checkpoint lock
+    boolean hasUnsyncedTransactions() {
+        return syncedTransactionId < transactionId;
+    }
+
+    // The highest transaction whose rows this repository holds; recovery replays only later ones into it
+    synchronized long getTransactionId() {
+        if (!loaded) load();
+        return transactionId;
+    }
+
+    /**
+     * Runs a read of data and the indexes under the read lock, so it sees them consistent with each other.
+     * Many readers can run at once; they only wait for a writer that is changing the indexes.
+     */
+    protected <R> R read(Supplier<R> reader) {
+        if (!loaded) load();
+        long stamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Like {@link #read}, but first tries without locking at all and only takes the read lock if a write
+     * overlapped. Only for reads that look up a few entries in hash-based indexes: the reader may see
+     * them mid-change, so it must not loop over unbounded structures, and any exception it throws
+     * during the optimistic attempt is treated as a torn read.
+     */
+    protected <R> R readOptimistic(Supplier<R> reader) {
+        if (!loaded) load();
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                R result = reader.get();
+                if (lock.validate(stamp)) return result;
+            } catch (RuntimeException e) {
+                // Torn read; retry under the lock
+            }
+        }
+        return read(reader);
+    }
+
+    // Stores an item and updates the indexes as one write; the caller holds the repository monitor
+    protected T storeItem(K key, T item) {
+        long stamp = lock.writeLock();
+        try {
+            T previous = data.put(key, item);
+            onItemStored(key, item);
+            // An item updated in place keeps its position, so the view only changes when the key maps to a different object
+            if (viewOrder != null && previous != item) publishView();
+            version++;
+            return previous;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private T removeItem(K key) {
+        long stamp = lock.writeLock();
+        try {
+            T removed = data.remove(key);
+            if (removed != null) {
+                onItemRemoved(key, removed);
+                if (viewOrder != null) publishView();
+                version++;
+            }
+            return removed;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Called with the write lock held, so readers never see a view that disagrees with data
+    private void publishView() {
+        List<T> items = new ArrayList<>(data.values());
+        items.sort(viewOrder);
+        view = Collections.unmodifiableList(items);
+    }
+
+    // Index maintenance hooks for subclasses with secondary indexes. They are called while the repository
+    // monitor and write lock are held; onItemStored also runs for updates of an item that was mutated in place.
+    protected void onItemStored(K key, T item) {
+    }
+
+    protected void onItemRemoved(K key, T item) {
+    }
+
+    // Called once the data map has been fully loaded, to rebuild secondary indexes from scratch
+    protected void rebuildIndexes() {
+    }
+
+    /**
+     * Records a single mutation, compacting into a snapshot when the journal has grown too long.
+     * Called with the monitor held; it does not wait for the fsync.
+     * @return True if a record was appended that the caller must {@code journal.sync()} once it has released the monitor.
+     */
+    protected synchronized boolean appendToJournal(Operation operation, T item) {
+        if (writeBehind) {
+            // Only the latest state per key matters, since replay treats every record as an upsert or removal
+            dirty.put(getKey(item), new Tuple<>(operation, item));
+            if (dirty.size() == flushThreshold && flushRequest != null) {
+                flushRequest.run();
+            }
+            return false;
+        }
+        journal.append(operation, encode(item, new RowWriter(headers.size())));
+        if (journal.getRecordCount() >= compactionThreshold()) {
+            save(); // Rare; the snapshot is written and synced under the monitor
+            return false;
+        }
+        return true;
+    }
+
+    // Load from the snapshot store if it is newer than the primary source; falls back to the primary on any problem
+    private boolean loadSnapshot() {
+        if (snapshotStore == null) return false;
+        long snapshotTime = snapshotStore.lastModified(sourceId);
+        if (snapshotTime < 0 || snapshotTime <= storageAdapter.lastModified(sourceId)) return false;
+        try {
+            snapshotStore.readRows(sourceId, headers, row -> {
+                T instance = createInstance(row);
+                data.put(getKey(instance), instance);
+            });
+            return true;
+        } catch (Exception e) {
+            System.out.println("Warning: Ignoring snapshot for " + sourceId + ": " + e.getMessage());
+            data.clear();
+            return false;
+        }
+    }
+
+    private String[] encode(T item, RowWriter row) {
+        row.clear();
+        toStorageRow(item, row);
+        return row.toText();
+    }
+
+    private int compactionThreshold() {
+        return Math.max(MIN_COMPACTION_RECORDS, data.size());
+    }
+
+    // Re-apply mutations recorded since the last snapshot. Replay is idempotent, so a crash
+    // between writing a snapshot and truncating the journal is harmless.
+    private void replayJournal() {
+        journal.replay((operation, row) -> {
+            T instance = createInstance(row);
+            K key = getKey(instance);
+            if (operation == Operation.DELETE) {
+                data.remove(key);
+            } else {
+                data.put(key, instance);
+            }
+        });
     }
     
     public Boolean isloaded() {
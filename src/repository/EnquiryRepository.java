@@ -1,21 +1,42 @@
 package repository;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.TreeMap;
 import common.FilePath;
 import exception.DataLoadError;
 import exception.IntegrityError;
 import interfaces.IEnquiryRepository;
 import model.Enquiry;
 import storage.IStorageAdapter;
+import storage.IdSequence;
+import storage.RowCursor;
+import storage.RowWriter;
+import util.NricMap;
 
 
 public class EnquiryRepository extends BaseRepository<Enquiry, Integer> implements IEnquiryRepository {
 
-    private int nextId;
+    // Column indexes into Enquiry.HEADERS
+    private static final int ENQUIRY_ID = 0;
+    private static final int APPLICANT_NRIC = 1;
+    private static final int PROJECT_NAME = 2;
+    private static final int TEXT = 3;
+    private static final int REPLY = 4;
+
+    // Secondary indexes in enquiry ID order, plus each project's backlog of enquiries still awaiting a reply
+    private final NricMap<TreeMap<Integer, Enquiry>> byApplicant = new NricMap<>();
+    private final Map<String, TreeMap<Integer, Enquiry>> byProject = new HashMap<>();
+    private final Map<String, TreeMap<Integer, Enquiry>> unrepliedByProject = new HashMap<>();
+
+    // Persistent block-allocated ID sequence, so startup never has to scan for the highest ID
+    private final IdSequence idSequence;
 
     public EnquiryRepository(IStorageAdapter storageAdapter) {
         super(storageAdapter,
@@ -23,59 +44,37 @@ public class EnquiryRepository extends BaseRepository<Enquiry, Integer> implemen
               FilePath.ENQUIRY.getPath(),
               Arrays.asList(Enquiry.HEADERS), // Convert String[] to List<String>
               enquiry -> enquiry.getEnquiryId()); // Assuming Enquiry has getEnquiryId method for key
-        this.nextId = 0;  // Initialized during load
+        this.idSequence = new IdSequence(FilePath.ENQUIRY.getPath(), storageAdapter.isDurable());
     }
 
-    // Calculate the next available ID based on current data
-    private int calculateNextId() {
-        if (this.getData().isEmpty()) {
-            return 1;
-        }
-        try {
-            return this.getData().keySet().stream()
-                    .max(Integer::compareTo)
-                    .orElse(0) + 1; // Finds the max key and adds 1
-        } catch (Exception e) {
-            System.out.println("Warning: Could not determine max Enquiry ID. Resetting next ID to 1.");
-            return 1;
-        }
-    }
-
-    // Override load to calculate next ID after data is loaded
+    // Override load to resume the ID sequence after data is loaded
     @Override
-    public void load() {
+    public synchronized void load() {
+        if (this.isloaded()) return;
         super.load(); // Load data using the base class method
-        this.nextId = calculateNextId(); // Calculate ID based on loaded data
+        if (!idSequence.open()) {
+            // No sequence file yet (first run or older data): start above the highest existing ID once
+            int maxId = 0;
+            for (Integer key : this.getData().keySet()) {
+                maxId = Math.max(maxId, key);
+            }
+            idSequence.seed(maxId + 1);
+        }
     }
 
-    // Override add to assign the next available ID
+    // Enquiries arrive with an ID from allocateId(); add only checks it is not taken
     @Override
-    public void add(Enquiry item) {
-        if (!this.isloaded()) load();
-
-        if (!(item instanceof Enquiry)) {
-            throw new IllegalArgumentException("Item must be of type Enquiry");
-        }
-
-        // Assign the next available ID before adding
-        item.setEnquiryId(this.nextId); // Assuming Enquiry has setEnquiryId() method for ID assignment
-
-        Integer key = this.getKey(item); // Get the ID as the key
-
+    protected void checkAdd(Integer key, Enquiry item) {
         if (this.getData().containsKey(key)) {
-            throw new IntegrityError("Enquiry with generated ID '" + key + "' already exists. ID generation failed?");
+            throw new IntegrityError("Enquiry with ID '" + key + "' already exists.");
         }
-
-        this.getData().put(key, item);
-        this.nextId++; // Increment for the next add
-        save();
     }
 
-    // Method to get the next available ID
+    // Reserves a new enquiry ID; lock-free apart from the first call in each block of IDs
     @Override
-    public int getNextId() {
+    public int allocateId() {
         if (!this.isloaded()) load();
-        return this.nextId;
+        return idSequence.next();
     }
 
     // Find an enquiry by ID
@@ -89,22 +88,34 @@ public class EnquiryRepository extends BaseRepository<Enquiry, Integer> implemen
         }
     }
 
-    // Find enquiries by applicant NRIC
+    // Find enquiries by applicant NRIC, in ID order
     @Override
     public List<Enquiry> findByApplicant(String applicantNric) {
-        if (!this.isloaded()) load();
-        return this.getData().values().stream()
-                .filter(enq -> enq.getApplicantNric().equals(applicantNric))
-                .collect(Collectors.toList());
+        return read(() -> valuesOf(byApplicant.get(applicantNric)));
     }
 
-    // Find enquiries by project name
+    // Find enquiries by project name, in ID order
     @Override
     public List<Enquiry> findByProject(String projectName) {
-        if (!this.isloaded()) load();
-        return this.getData().values().stream()
-                .filter(enq -> enq.getProjectName().equals(projectName))
-                .collect(Collectors.toList());
+        return read(() -> valuesOf(byProject.get(projectName)));
+    }
+
+    // Find enquiries for any of the given projects, in ID order; optionally only those still awaiting a reply
+    @Override
+    public List<Enquiry> findByProjects(Collection<String> projectNames, boolean unrepliedOnly) {
+        Map<String, TreeMap<Integer, Enquiry>> index = unrepliedOnly ? unrepliedByProject : byProject;
+        List<Enquiry> result = read(() -> {
+            List<Enquiry> found = new ArrayList<>();
+            for (String projectName : projectNames) {
+                TreeMap<Integer, Enquiry> enquiries = index.get(projectName);
+                if (enquiries != null) found.addAll(enquiries.values());
+            }
+            return found;
+        });
+        if (projectNames.size() > 1) {
+            result.sort(Comparator.comparingInt(Enquiry::getEnquiryId));
+        }
+        return result;
     }
 
     // Delete an enquiry by ID
@@ -120,34 +131,79 @@ public class EnquiryRepository extends BaseRepository<Enquiry, Integer> implemen
 
     // Implementation of the createInstance method to create Enquiry from row data
 
-    protected Enquiry createInstance(Map<String, Object> rowDict) {
+    // Implementation of the createInstance method to create Enquiry from row data
+    protected Enquiry createInstance(RowCursor row) {
         try {
-            // Retrieve the necessary fields from the rowDict
-            int enquiryId = (int) rowDict.get("EnquiryId");
-            String applicantNric = (String) rowDict.get("ApplicantNRIC");
-            String projectName = (String) rowDict.get("ProjectName");
-            String text = (String) rowDict.get("Text");  // Assuming text is in the rowDict
-            String reply = (String) rowDict.get("Reply");  // Assuming reply is in the rowDict
+            // Retrieve the necessary fields from the row
+            int enquiryId = row.getInt(ENQUIRY_ID);
+            String applicantNric = row.getString(APPLICANT_NRIC);
+            String projectName = row.getSymbol(PROJECT_NAME);
+            String text = row.getString(TEXT);
+            String reply = row.getString(REPLY);
 
             // Create and return the Enquiry object
             return new Enquiry(enquiryId, applicantNric, projectName, text, reply);
         } catch (Exception e) {
-            throw new DataLoadError("Error creating Enquiry from row: " + rowDict + ". Error: " + e);
+            throw new DataLoadError("Error creating Enquiry from row: " + row + ". Error: " + e);
         }
     }
 
 
 	@Override
-	protected Map<String, Object> toStorageMap(Enquiry item) {
-		// TODO Auto-generated method stub
-		return null;
+	protected void toStorageRow(Enquiry item, RowWriter row) {
+		row.setInt(ENQUIRY_ID, item.getEnquiryId())
+		   .setString(APPLICANT_NRIC, item.getApplicantNric())
+		   .setString(PROJECT_NAME, item.getProjectName())
+		   .setString(TEXT, item.getText())
+		   .setString(REPLY, item.getReply());
 	}
 
 	@Override
 	protected Integer getKey(Enquiry item) {
-		// TODO Auto-generated method stub
-		return null;
+		return item.getEnquiryId();
+	}
+
+	// A reply is set in place before update() is called, which is what moves an enquiry off the backlog
+	@Override
+	protected void onItemStored(Integer key, Enquiry item) {
+		byApplicant.computeIfAbsent(item.getApplicantNric(), nric -> new TreeMap<>()).put(key, item);
+		byProject.computeIfAbsent(item.getProjectName(), name -> new TreeMap<>()).put(key, item);
+		if (item.isReplied()) {
+			removeFrom(unrepliedByProject, item.getProjectName(), key);
+		} else {
+			unrepliedByProject.computeIfAbsent(item.getProjectName(), name -> new TreeMap<>()).put(key, item);
+		}
 	}
-}
 
+	@Override
+	protected void onItemRemoved(Integer key, Enquiry item) {
+		TreeMap<Integer, Enquiry> mine = byApplicant.get(item.getApplicantNric());
+		if (mine != null) {
+			mine.remove(key);
+			if (mine.isEmpty()) byApplicant.remove(item.getApplicantNric());
+		}
+		removeFrom(byProject, item.getProjectName(), key);
+		removeFrom(unrepliedByProject, item.getProjectName(), key);
+	}
+
+	@Override
+	protected void rebuildIndexes() {
+		byApplicant.clear();
+		byProject.clear();
+		unrepliedByProject.clear();
+		for (Map.Entry<Integer, Enquiry> entry : data.entrySet()) {
+			onItemStored(entry.getKey(), entry.getValue());
+		}
+	}
 
+	private static void removeFrom(Map<String, TreeMap<Integer, Enquiry>> index, String name, Integer key) {
+		TreeMap<Integer, Enquiry> enquiries = index.get(name);
+		if (enquiries == null) return;
+		enquiries.remove(key);
+		if (enquiries.isEmpty()) index.remove(name);
+	}
+
+	private static List<Enquiry> valuesOf(TreeMap<Integer, Enquiry> enquiries) {
+		return enquiries == null ? new ArrayList<>() : new ArrayList<>(enquiries.values());
+	}
+}
@@ -1,13 +1,14 @@
 package repository;
 
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Comparator;
 import java.util.Optional;
 
 import exception.DataLoadError;
 import exception.IntegrityError;
 import storage.IStorageAdapter;
+import storage.RowCursor;
+import storage.RowWriter;
 import model.HDBManager;
 import common.FilePath;
 
@@ -17,46 +18,53 @@ public class ManagerRepository extends BaseRepository<HDBManager, String> {
         "Name", "NRIC", "Age", "Marital Status", "Password"
     };
 
+    // Column indexes into HEADERS
+    private static final int NAME = 0;
+    private static final int NRIC = 1;
+    private static final int AGE = 2;
+    private static final int MARITAL_STATUS = 3;
+    private static final int PASSWORD = 4;
+
     public ManagerRepository(IStorageAdapter storageAdapter) {
         super(storageAdapter,
               HDBManager.class,
               FilePath.MANAGER.getPath(), // Using getPath() instead of value
               Arrays.asList(HEADERS),  // Convert array to List
               manager -> manager.getNric()); // Key getter for manager
+        enableSortedView(Comparator.comparing(HDBManager::getNric));
     }
 
-    // Create an instance of HDBManager from the row map
+    // Create an instance of HDBManager from the row under the cursor
     @Override
-    protected HDBManager createInstance(Map<String, Object> rowDict) {
+    protected HDBManager createInstance(RowCursor row) {
         try {
-            // Validate and retrieve the fields from the rowDict
-            int age = Integer.parseInt((String) rowDict.get("Age"));
+            // Validate and retrieve the fields from the row
+            int age = row.getInt(AGE);
             if (age < 0) {
                 throw new IllegalArgumentException("Age cannot be negative");
             }
 
+            String password = row.getString(PASSWORD);
             return new HDBManager(
-                (String) rowDict.get("Name"),
-                (String) rowDict.get("NRIC"),
+                row.getString(NAME),
+                row.getString(NRIC),
                 age,
-                (String) rowDict.get("Marital Status"),
-                (String) rowDict.getOrDefault("Password", "password") // Default password if not present
+                row.getString(MARITAL_STATUS),
+                password.isEmpty() ? "password" : password  // Default password if not present
             );
         } catch (Exception e) {
-            throw new DataLoadError("Error creating HDBManager from row: " + rowDict + ". Error: " + e);
+            throw new DataLoadError("Error creating HDBManager from row: " + row + ". Error: " + e);
         }
     }
 
-    // Convert the HDBManager instance to a map for storage
+    // Write the HDBManager instance into a storage row
     @Override
-    protected Map<String, Object> toStorageMap(HDBManager item) {
-        Map<String, Object> map = new HashMap<>();
-        map.put("Name", item.getName());
-        map.put("NRIC", item.getNric());
-        map.put("Age", item.getAge());
-        map.put("Marital Status", item.getMaritalStatus());
-        map.put("Password", item.getPasswordForStorage()); // Ensure password is securely handled
-        return map;
+    protected void toStorageRow(HDBManager item, RowWriter row) {
+        row.setString(NAME, item.getName())
+           .setString(NRIC, item.getNric())
+           .setInt(AGE, item.getAge())
+           .setString(MARITAL_STATUS, item.getMaritalStatus())
+           .setString(PASSWORD, item.getPasswordForStorage());  // Ensure password is securely handled
     }
     protected String getKey(HDBManager item) {
         return item.getNric();  // Assuming HDBManager has a method getNric() to retrieve the NRIC
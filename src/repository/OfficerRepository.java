@@ -1,13 +1,14 @@
 package repository;
 
-import java.util.Map;
+import java.util.Comparator;
 import java.util.Optional;
-import java.util.HashMap;
 import java.util.Arrays;
 
 import exception.DataLoadError;
 import exception.IntegrityError;
 import storage.IStorageAdapter;
+import storage.RowCursor;
+import storage.RowWriter;
 import model.HDBOfficer;
 import common.FilePath;
 
@@ -17,46 +18,53 @@ public class OfficerRepository extends BaseRepository<HDBOfficer, String> {
         "Name", "NRIC", "Age", "Marital Status", "Password"
     };
 
+    // Column indexes into HEADERS
+    private static final int NAME = 0;
+    private static final int NRIC = 1;
+    private static final int AGE = 2;
+    private static final int MARITAL_STATUS = 3;
+    private static final int PASSWORD = 4;
+
     public OfficerRepository(IStorageAdapter storageAdapter) {
         super(storageAdapter,
               HDBOfficer.class,
               FilePath.OFFICER.getPath(), // Using getPath() instead of value
               Arrays.asList(HEADERS),  // Convert array to List
               officer -> officer.getNric()); // Key getter for officer
+        enableSortedView(Comparator.comparing(HDBOfficer::getNric));
     }
 
-    // Create an instance of HDBOfficer from the row map
+    // Create an instance of HDBOfficer from the row under the cursor
     @Override
-    protected HDBOfficer createInstance(Map<String, Object> rowDict) {
+    protected HDBOfficer createInstance(RowCursor row) {
         try {
-            // Validate and retrieve the fields from the rowDict
-            int age = Integer.parseInt((String) rowDict.get("Age"));
+            // Validate and retrieve the fields from the row
+            int age = row.getInt(AGE);
             if (age < 0) {
                 throw new IllegalArgumentException("Age cannot be negative");
             }
 
+            String password = row.getString(PASSWORD);
             return new HDBOfficer(
-                (String) rowDict.get("Name"),
-                (String) rowDict.get("NRIC"),
+                row.getString(NAME),
+                row.getString(NRIC),
                 age,
-                (String) rowDict.get("Marital Status"),
-                (String) rowDict.getOrDefault("Password", "password")  // Default password if not present
+                row.getString(MARITAL_STATUS),
+                password.isEmpty() ? "password" : password  // Default password if not present
             );
         } catch (Exception e) {
-            throw new DataLoadError("Error creating HDBOfficer from row: " + rowDict + ". Error: " + e);
+            throw new DataLoadError("Error creating HDBOfficer from row: " + row + ". Error: " + e);
         }
     }
 
-    // Convert the HDBOfficer instance to a map for storage
+    // Write the HDBOfficer instance into a storage row
     @Override
-    protected Map<String, Object> toStorageMap(HDBOfficer item) {
-        Map<String, Object> map = new HashMap<>();
-        map.put("Name", item.getName());
-        map.put("NRIC", item.getNric());
-        map.put("Age", item.getAge());
-        map.put("Marital Status", item.getMaritalStatus());
-        map.put("Password", item.getPasswordForStorage());  // Ensure password is securely handled
-        return map;
+    protected void toStorageRow(HDBOfficer item, RowWriter row) {
+        row.setString(NAME, item.getName())
+           .setString(NRIC, item.getNric())
+           .setInt(AGE, item.getAge())
+           .setString(MARITAL_STATUS, item.getMaritalStatus())
+           .setString(PASSWORD, item.getPasswordForStorage());  // Ensure password is securely handled
     }
 
     // Implement the getKey method to retrieve the unique key (NRIC) for HDBOfficer
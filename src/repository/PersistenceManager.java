@@ -2,31 +2,83 @@ package repository;
 
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+import exception.DataLoadError;
 import exception.DataSaveError;
 import interfaces.IBaseRepository;
+import storage.IStorageAdapter;
 
 public class PersistenceManager {
+    // Defaults for write-behind mode: flush every few seconds, or sooner once a repository has this many dirty keys
+    public static final long DEFAULT_FLUSH_INTERVAL_MS = 2000;
+    public static final int DEFAULT_FLUSH_THRESHOLD = 500;
+
     private List<IBaseRepository<?, ?>> repositories;
+    private final List<DependentStep> dependentSteps = new ArrayList<>();
+    private ScheduledExecutorService flusher;
+    private IStorageAdapter snapshotStore;
+    private TransactionManager transactions;
+
+    private static final class DependentStep {
+        final String name;
+        final Runnable action;
+        final List<IBaseRepository<?, ?>> inputs;
+
+        DependentStep(String name, Runnable action, List<IBaseRepository<?, ?>> inputs) {
+            this.name = name;
+            this.action = action;
+            this.inputs = inputs;
+        }
+    }
 
     // Constructor
     public PersistenceManager(List<IBaseRepository<?, ?>> repositories) {
         this.repositories = repositories;
     }
 
-    // Load data for all managed repositories
+    // Load data for all managed repositories in parallel, then run any dependent steps once their inputs are loaded
     public void loadAll() {
         System.out.println("Loading all data...");
-        List<String> errors = new ArrayList<>();
-        for (IBaseRepository<?, ?> repo : repositories) {
-            try {
-                repo.load();  // Assuming IBaseRepository has a load() method
-            } catch (Exception e) {
-                // Log error but continue loading others
-                String errorMsg = "Failed to load data for " + repo.getClass().getSimpleName() + ": " + e.getMessage();
-                System.out.println("ERROR: " + errorMsg);
-                errors.add(errorMsg);
+        List<String> errors = Collections.synchronizedList(new ArrayList<>());
+        int threads = Math.max(1, Math.min(repositories.size(), Runtime.getRuntime().availableProcessors()));
+        ExecutorService loader = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "persistence-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long start = System.nanoTime();
+        try {
+            Map<IBaseRepository<?, ?>, CompletableFuture<Void>> loads = new IdentityHashMap<>();
+            for (IBaseRepository<?, ?> repo : repositories) {
+                loads.put(repo, CompletableFuture.runAsync(
+                        () -> timed(repo.getClass().getSimpleName(), () -> loadChecked(repo), "load data for", errors), loader));
+            }
+
+            List<CompletableFuture<Void>> pending = new ArrayList<>(loads.values());
+            for (DependentStep step : dependentSteps) {
+                // A step waits for its inputs whether or not they loaded cleanly; their errors are already recorded
+                CompletableFuture<?>[] inputs = step.inputs.stream()
+                        .map(loads::get)
+                        .filter(Objects::nonNull)
+                        .toArray(CompletableFuture<?>[]::new);
+                pending.add(CompletableFuture.allOf(inputs)
+                        .handle((ignored, error) -> null)
+                        .thenRunAsync(() -> timed(step.name, step.action, "run", errors), loader));
             }
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0])).join();
+        } finally {
+            loader.shutdown();
         }
 
         if (!errors.isEmpty()) {
@@ -37,10 +89,30 @@ public class PersistenceManager {
             }
             System.out.println("---------------------------------");
         } else {
-            System.out.println("All data loaded successfully.");
+            System.out.printf("All data loaded successfully in %d ms.%n", (System.nanoTime() - start) / 1_000_000);
         }
     }
 
+    /**
+     * Registers a step that loadAll runs after the given repositories have finished loading,
+     * e.g. replaying unfinished transactions (see {@link #enableTransactions(TransactionManager)}).
+     * @param name The name used in timing output and error messages.
+     * @param action The step to run.
+     * @param inputs The repositories the step depends on.
+     */
+    public void addDependentStep(String name, Runnable action, IBaseRepository<?, ?>... inputs) {
+        dependentSteps.add(new DependentStep(name, action, List.of(inputs)));
+    }
+
+    /**
+     * Replays transactions left unfinished by a previous run once all repositories have loaded.
+     * Call before {@link #loadAll()}.
+     */
+    public void enableTransactions(TransactionManager transactions) {
+        this.transactions = transactions;
+        addDependentStep("TransactionManager", transactions::recover, repositories.toArray(new IBaseRepository<?, ?>[0]));
+    }
+
     // Save data for all managed repositories
     public void saveAll() {
         List<String> errors = new ArrayList<>();
@@ -59,4 +131,161 @@ public class PersistenceManager {
             throw new DataSaveError("Errors occurred during data save:\n" + String.join("\n", errors));
         }
     }
+
+    /**
+     * Keeps a snapshot of every repository in the given store: written on shutdown and preferred on load when it is newer than the CSV.
+     * Call before {@link #loadAll()}.
+     */
+    public void enableSnapshots(IStorageAdapter snapshotStore) {
+        this.snapshotStore = snapshotStore;
+        for (IBaseRepository<?, ?> repo : repositories) {
+            if (repo instanceof BaseRepository) {
+                ((BaseRepository<?, ?>) repo).setSnapshotStore(snapshotStore);
+            }
+        }
+    }
+
+    // Write a snapshot of every repository, so the next start can skip parsing CSV
+    public void saveSnapshots() {
+        if (snapshotStore == null) return;
+        List<String> errors = new ArrayList<>();
+        for (IBaseRepository<?, ?> repo : repositories) {
+            if (!(repo instanceof BaseRepository)) continue;
+            try {
+                ((BaseRepository<?, ?>) repo).saveSnapshot();
+            } catch (Exception e) {
+                String errorMsg = "Failed to write snapshot for " + repo.getClass().getSimpleName() + ": " + e.getMessage();
+                System.out.println("ERROR: " + errorMsg);
+                errors.add(errorMsg);
+            }
+        }
+
+        if (!errors.isEmpty()) {
+            throw new DataSaveError("Errors occurred during snapshot save:\n" + String.join("\n", errors));
+        }
+    }
+
+    // Switch every repository to write-behind mode and start the background flusher
+    public synchronized void enableWriteBehind(long flushIntervalMs, int flushThreshold) {
+        if (flusher != null) return;
+
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "persistence-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (IBaseRepository<?, ?> repo : repositories) {
+            if (repo instanceof BaseRepository) {
+                ScheduledExecutorService executor = flusher;
+                ((BaseRepository<?, ?>) repo).setWriteBehind(true, flushThreshold, () -> requestFlush(executor, repo));
+            }
+        }
+        flusher.scheduleWithFixedDelay(this::flushAllQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void enableWriteBehind() {
+        enableWriteBehind(DEFAULT_FLUSH_INTERVAL_MS, DEFAULT_FLUSH_THRESHOLD);
+    }
+
+    // Write out all pending write-behind changes now (e.g. on logout)
+    public void flushAll() {
+        List<String> errors = new ArrayList<>();
+        for (IBaseRepository<?, ?> repo : repositories) {
+            try {
+                repo.flush();
+            } catch (Exception e) {
+                String errorMsg = "Failed to flush data for " + repo.getClass().getSimpleName() + ": " + e.getMessage();
+                System.out.println("ERROR: " + errorMsg);
+                errors.add(errorMsg);
+            }
+        }
+
+        if (!errors.isEmpty()) {
+            throw new DataSaveError("Errors occurred during data flush:\n" + String.join("\n", errors));
+        }
+    }
+
+    // Switch every repository back to write-through (which flushes it), stop the background flusher and write snapshots (e.g. on exit)
+    public void shutdown() {
+        ScheduledExecutorService executor;
+        synchronized (this) {
+            executor = flusher;
+            flusher = null;
+        }
+        // Before the executor stops, so no repository is left buffering writes for a flusher that no longer runs
+        List<String> errors = new ArrayList<>();
+        for (IBaseRepository<?, ?> repo : repositories) {
+            try {
+                if (repo instanceof BaseRepository) {
+                    ((BaseRepository<?, ?>) repo).setWriteBehind(false, 0, null);
+                } else {
+                    repo.flush();
+                }
+            } catch (Exception e) {
+                String errorMsg = "Failed to flush data for " + repo.getClass().getSimpleName() + ": " + e.getMessage();
+                System.out.println("ERROR: " + errorMsg);
+                errors.add(errorMsg);
+            }
+        }
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new DataSaveError("Errors occurred during data flush:\n" + String.join("\n", errors));
+        }
+        if (transactions != null) transactions.checkpoint();
+        saveSnapshots();
+    }
+
+    // BaseRepository.load() logs and swallows read errors, leaving the repository unloaded; report that as a failure
+    private static void loadChecked(IBaseRepository<?, ?> repo) {
+        repo.load();
+        if (repo instanceof BaseRepository && !((BaseRepository<?, ?>) repo).isloaded()) {
+            throw new DataLoadError("Data could not be read.");
+        }
+    }
+
+    // Runs a loading task, reporting how long it took or recording its failure
+    private void timed(String name, Runnable task, String verb, List<String> errors) {
+        long start = System.nanoTime();
+        try {
+            task.run();
+            System.out.printf("Loaded %s in %d ms.%n", name, (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            // Log error but continue loading others
+            String errorMsg = "Failed to " + verb + " " + name + ": " + e.getMessage();
+            System.out.println("ERROR: " + errorMsg);
+            errors.add(errorMsg);
+        }
+    }
+
+    private void flushAllQuietly() {
+        try {
+            flushAll();
+        } catch (DataSaveError e) {
+            // Already reported per repository; the changes stay dirty and are retried on the next flush
+        }
+    }
+
+    // A repository that could not be switched back on shutdown still asks for flushes; its changes then stay dirty
+    private void requestFlush(ScheduledExecutorService executor, IBaseRepository<?, ?> repo) {
+        try {
+            executor.execute(() -> flushQuietly(repo));
+        } catch (RejectedExecutionException e) {
+            System.out.println("Warning: Flusher stopped; changes to " + repo.getClass().getSimpleName() + " wait for the next explicit flush.");
+        }
+    }
+
+    private void flushQuietly(IBaseRepository<?, ?> repo) {
+        try {
+            repo.flush();
+        } catch (Exception e) {
+            System.out.println("ERROR: Failed to flush data for " + repo.getClass().getSimpleName() + ": " + e.getMessage());
+        }
+    }
 }
@@ -1,18 +1,23 @@
 package repository;
 
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.time.LocalDate;
-import java.time.ZoneId;
 import java.util.Date;
 import exception.DataLoadError;
 import storage.IStorageAdapter;
+import storage.RowCursor;
+import storage.RowWriter;
 import util.DateUtil;
+import util.IntervalTree;
 import model.Project;
 import common.FilePath;
 import common.FlatType;
@@ -20,47 +25,90 @@ import interfaces.IProjectRepository;
 
 public class ProjectRepository extends BaseRepository<Project, String> implements IProjectRepository {
 
+    // Column indexes into Project.HEADERS
+    private static final int PROJECT_NAME = 0;
+    private static final int NEIGHBORHOOD = 1;
+    private static final int TYPE_1 = 2;
+    private static final int UNITS_1 = 3;
+    private static final int PRICE_1 = 4;
+    private static final int TYPE_2 = 5;
+    private static final int UNITS_2 = 6;
+    private static final int PRICE_2 = 7;
+    private static final int OPENING_DATE = 8;
+    private static final int CLOSING_DATE = 9;
+    private static final int MANAGER = 10;
+    private static final int OFFICER_SLOT = 11;
+    private static final int OFFICER = 12;
+    private static final int VISIBILITY = 13;
+
+    // Application windows (in epoch days) of each manager's and each rostered officer's projects, for overlap checks
+    private final Map<String, IntervalTree<String>> windowsByManager = new HashMap<>();
+    private final Map<String, IntervalTree<String>> windowsByOfficer = new HashMap<>();
+    // What each project was last indexed under; projects are edited in place before update() is called
+    private final Map<String, IndexedWindow> indexedWindows = new HashMap<>();
+    // Officer NRIC -> names of the projects whose roster includes them. The sets are immutable and replaced on
+    // change, so callers can hold on to them without copying or locking.
+    private final Map<String, Set<String>> projectNamesByOfficer = new HashMap<>();
+    private final Map<String, List<String>> indexedRosters = new HashMap<>();
+
+    private static final class IndexedWindow {
+        final long start;
+        final long end;
+        final String managerNric;
+        final List<String> officerNrics;
+
+        IndexedWindow(long start, long end, String managerNric, List<String> officerNrics) {
+            this.start = start;
+            this.end = end;
+            this.managerNric = managerNric;
+            this.officerNrics = officerNrics;
+        }
+    }
+
     public ProjectRepository(IStorageAdapter storageAdapter) {
         super(storageAdapter,
               Project.class,
               FilePath.PROJECT.getPath(),
               Arrays.asList(Project.HEADERS),  // Convert the HEADERS array to a List<String>
               project -> project.getProjectName());  // Key getter for project
+        // Projects are listed on almost every menu but rarely change
+        enableSortedView(Comparator.comparing(Project::getProjectName));
     }
 
     // Implementing the createInstance method
     @Override
-    protected Project createInstance(Map<String, Object> rowDict) {
+    protected Project createInstance(RowCursor row) {
         try {
-            // Retrieve the necessary fields from the rowDict
-            String projectName = (String) rowDict.get("Project Name");
-            String neighborhood = (String) rowDict.get("Neighborhood");
-            int numUnits1 = Integer.parseInt((String) rowDict.get("Number of units for Type 1"));
-            int price1 = Integer.parseInt((String) rowDict.get("Selling price for Type 1"));
-            int numUnits2 = Integer.parseInt((String) rowDict.get("Number of units for Type 2"));
-            int price2 = Integer.parseInt((String) rowDict.get("Selling price for Type 2"));
-            String managerNric = (String) rowDict.get("Manager");
-            int officerSlot = Integer.parseInt((String) rowDict.get("Officer Slot"));
-            boolean visibility = Boolean.parseBoolean((String) rowDict.get("Visibility"));
-
-            // Convert the opening and closing date strings to Date objects (example format: "yyyy-MM-dd")
-            String openingDateStr = (String) rowDict.get("Application opening date");
-            String closingDateStr = (String) rowDict.get("Application closing date");
-            LocalDate oDate = DateUtil.parseDate(openingDateStr);
-            LocalDate cDate = DateUtil.parseDate(closingDateStr);
-            
-            Date openingDate = Date.from(oDate.atStartOfDay(ZoneId.systemDefault()).toInstant());
-            Date closingDate = Date.from(cDate.atStartOfDay(ZoneId.systemDefault()).toInstant());
+            // Retrieve the necessary fields from the row
+            String projectName = row.getSymbol(PROJECT_NAME);
+            String neighborhood = row.getSymbol(NEIGHBORHOOD);
+            int numUnits1 = row.getInt(UNITS_1);
+            int price1 = row.getInt(PRICE_1);
+            int numUnits2 = row.getInt(UNITS_2);
+            int price2 = row.getInt(PRICE_2);
+            String managerNric = row.getString(MANAGER);
+            int officerSlot = row.getInt(OFFICER_SLOT);
+            boolean visibility = row.getBoolean(VISIBILITY);
+            String officerList = row.getString(OFFICER);
+            List<String> officerNrics = new ArrayList<>();
+            if (!officerList.isEmpty()) {
+                for (String nric : officerList.split(",")) {
+                    if (!nric.trim().isEmpty()) officerNrics.add(nric.trim());
+                }
+            }
+
+            long openingDay = row.getEpochDay(OPENING_DATE);
+            long closingDay = row.getEpochDay(CLOSING_DATE);
             // Check if any required fields are missing
-            if (projectName == null || neighborhood == null || managerNric == null) {
-                throw new DataLoadError("Missing required fields in row: " + rowDict);
+            if (projectName.isEmpty() || neighborhood.isEmpty() || managerNric.isEmpty() || openingDay == DateUtil.NO_DATE || closingDay == DateUtil.NO_DATE) {
+                throw new DataLoadError("Missing required fields in row: " + row);
             }
 
             // Create and return the Project instance
             return new Project(projectName, neighborhood, numUnits1, price1, numUnits2, price2,
-                               openingDate, closingDate, managerNric, officerSlot, new ArrayList<>(), visibility);
+                               openingDay, closingDay, managerNric, officerSlot, officerNrics, visibility);
         } catch (Exception e) {
-            throw new DataLoadError("Error creating Project from row: " + rowDict + ". Error: " + e);
+            throw new DataLoadError("Error creating Project from row: " + row + ". Error: " + e);
         }
     }
 
@@ -82,23 +130,124 @@ public class ProjectRepository extends BaseRepository<Project, String> implement
     }
 
     @Override
-    protected Map<String, Object> toStorageMap(Project item) {
-        Map<String, Object> map = new HashMap<>();
-        map.put("Project Name", item.getProjectName());
-        map.put("Neighborhood", item.getNeighborhood());
-        map.put("Type 1", item.getFlatDetails(FlatType.TWO_ROOM)[0]);
-        map.put("Number of units for Type 1", item.getFlatDetails(FlatType.TWO_ROOM)[0]);
-        map.put("Selling price for Type 1", item.getFlatDetails(FlatType.TWO_ROOM)[1]);
-        map.put("Type 2", item.getFlatDetails(FlatType.THREE_ROOM)[0]);
-        map.put("Number of units for Type 2", item.getFlatDetails(FlatType.THREE_ROOM)[0]);
-        map.put("Selling price for Type 2", item.getFlatDetails(FlatType.THREE_ROOM)[1]);
-        map.put("Application opening date", DateUtil.formatDate(item.getOpeningDate()));
-        map.put("Application closing date", DateUtil.formatDate(item.getClosingDate()));
-        map.put("Manager", item.getManagerNric());
-        map.put("Officer Slot", item.getOfficerSlot());
-        map.put("Officer", String.join(",", item.getOfficerNrics()));
-        map.put("Visibility", item.isVisibility());
-        return map;
+    public Set<String> findProjectNamesByOfficer(String officerNric) {
+        // The indexed sets are unmodifiable and replaced on every change, so they can be returned as they are
+        return readOptimistic(() -> projectNamesByOfficer.getOrDefault(officerNric, Collections.emptySet()));
+    }
+
+    @Override
+    public List<Project> findOverlappingByManager(String managerNric, Date openingDate, Date closingDate) {
+        return read(() -> findOverlapping(windowsByManager.get(managerNric), openingDate, closingDate));
+    }
+
+    @Override
+    public List<Project> findOverlappingByOfficer(String officerNric, Date openingDate, Date closingDate) {
+        return read(() -> findOverlapping(windowsByOfficer.get(officerNric), openingDate, closingDate));
+    }
+
+    private List<Project> findOverlapping(IntervalTree<String> windows, Date openingDate, Date closingDate) {
+        List<Project> result = new ArrayList<>();
+        if (windows == null || openingDate == null || closingDate == null) return result;
+        for (String name : windows.findOverlapping(DateUtil.toEpochDay(openingDate), DateUtil.toEpochDay(closingDate))) {
+            result.add(data.get(name));
+        }
+        return result;
+    }
+
+    @Override
+    protected void onItemStored(String key, Project item) {
+        indexRoster(key, item.getOfficerNricsView());
+        unindexWindow(key);
+        IndexedWindow window = new IndexedWindow(item.getOpeningDay(), item.getClosingDay(),
+                item.getManagerNric(), new ArrayList<>(item.getOfficerNricsView()));
+        windowsByManager.computeIfAbsent(window.managerNric, nric -> new IntervalTree<>()).insert(window.start, window.end, key);
+        for (String officerNric : window.officerNrics) {
+            windowsByOfficer.computeIfAbsent(officerNric, nric -> new IntervalTree<>()).insert(window.start, window.end, key);
+        }
+        indexedWindows.put(key, window);
+    }
+
+    @Override
+    protected void onItemRemoved(String key, Project item) {
+        indexRoster(key, Collections.emptyList());
+        unindexWindow(key);
+    }
+
+    @Override
+    protected void rebuildIndexes() {
+        windowsByManager.clear();
+        windowsByOfficer.clear();
+        indexedWindows.clear();
+        projectNamesByOfficer.clear();
+        indexedRosters.clear();
+        for (Map.Entry<String, Project> entry : data.entrySet()) {
+            onItemStored(entry.getKey(), entry.getValue());
+        }
+    }
+
+    // Moves a project between officers' sets, touching only the officers whose membership changed
+    private void indexRoster(String key, List<String> roster) {
+        List<String> previous = indexedRosters.getOrDefault(key, Collections.emptyList());
+        if (previous.equals(roster)) return;
+        for (String officerNric : previous) {
+            if (!roster.contains(officerNric)) {
+                Set<String> names = new HashSet<>(projectNamesByOfficer.getOrDefault(officerNric, Collections.emptySet()));
+                names.remove(key);
+                if (names.isEmpty()) {
+                    projectNamesByOfficer.remove(officerNric);
+                } else {
+                    projectNamesByOfficer.put(officerNric, Collections.unmodifiableSet(names));
+                }
+            }
+        }
+        for (String officerNric : roster) {
+            if (!previous.contains(officerNric)) {
+                Set<String> names = new HashSet<>(projectNamesByOfficer.getOrDefault(officerNric, Collections.emptySet()));
+                names.add(key);
+                projectNamesByOfficer.put(officerNric, Collections.unmodifiableSet(names));
+            }
+        }
+        if (roster.isEmpty()) {
+            indexedRosters.remove(key);
+        } else {
+            indexedRosters.put(key, new ArrayList<>(roster));
+        }
+    }
+
+    private void unindexWindow(String key) {
+        IndexedWindow window = indexedWindows.remove(key);
+        if (window == null) return;
+        removeWindow(windowsByManager, window.managerNric, window, key);
+        for (String officerNric : window.officerNrics) {
+            removeWindow(windowsByOfficer, officerNric, window, key);
+        }
+    }
+
+    private static void removeWindow(Map<String, IntervalTree<String>> partitions, String nric, IndexedWindow window, String key) {
+        IntervalTree<String> windows = partitions.get(nric);
+        if (windows == null) return;
+        windows.remove(window.start, window.end, key);
+        if (windows.isEmpty()) partitions.remove(nric);
+    }
+
+    @Override
+    protected void toStorageRow(Project item, RowWriter row) {
+        int[] twoRoom = item.getFlatDetails(FlatType.TWO_ROOM);
+        int[] threeRoom = item.getFlatDetails(FlatType.THREE_ROOM);
+        row.setString(PROJECT_NAME, item.getProjectName())
+           .setString(NEIGHBORHOOD, item.getNeighborhood())
+           .setString(TYPE_1, FlatType.TWO_ROOM.toString())
+           .setInt(UNITS_1, twoRoom[0])
+           .setInt(PRICE_1, twoRoom[1])
+           .setString(TYPE_2, FlatType.THREE_ROOM.toString())
+           .setInt(UNITS_2, threeRoom[0])
+           .setInt(PRICE_2, threeRoom[1])
+           .setEpochDay(OPENING_DATE, item.getOpeningDay())
+           .setEpochDay(CLOSING_DATE, item.getClosingDay())
+           .setString(MANAGER, item.getManagerNric())
+           .setInt(OFFICER_SLOT, item.getOfficerSlot())
+           .setString(OFFICER, String.join(",", item.getOfficerNrics()))
+           .setBoolean(VISIBILITY, item.isVisibility());
     }
 
     @Override
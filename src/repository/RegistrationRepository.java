@@ -3,57 +3,139 @@ package repository;
 
 import model.Registration;
 import storage.IStorageAdapter;
+import storage.RowCursor;
+import storage.RowWriter;
 import common.FilePath;
+import common.NricProjectKey;
 import common.RegistrationStatus;
+import exception.DataLoadError;
 import interfaces.IRegistrationRepository;
 import java.util.*;
-import java.util.stream.Collectors;
+import util.NricMap;
 
-public class RegistrationRepository extends BaseRepository<Registration, String> implements IRegistrationRepository {
+public class RegistrationRepository extends BaseRepository<Registration, NricProjectKey> implements IRegistrationRepository {
+
+    // Column indexes into Registration.HEADERS
+    private static final int OFFICER_NRIC = 0;
+    private static final int PROJECT_NAME = 1;
+    private static final int STATUS = 2;
+
+    // Secondary indexes, keyed like data: officer NRIC (encoded) -> registrations, and project name -> status -> registrations
+    private final NricMap<Map<NricProjectKey, Registration>> byOfficer = new NricMap<>();
+    private final Map<String, Map<RegistrationStatus, Map<NricProjectKey, Registration>>> byProject = new HashMap<>();
+    private final Map<NricProjectKey, RegistrationStatus> indexedStatus = new HashMap<>();
 
     public RegistrationRepository(IStorageAdapter storageAdapter) {
         super(storageAdapter,
               Registration.class,
               FilePath.REGISTRATION.getPath(),
               Arrays.asList(Registration.HEADERS), // Convert String[] to List<String>
-              reg -> reg.getOfficerNric() + "-" + reg.getProjectName()); // Composite key
+              reg -> NricProjectKey.of(reg.getOfficerNric(), reg.getProjectName())); // Composite key
     }
 
     public Optional<Registration> findByOfficerAndProject(String officerNric, String projectName) {
-        String key = officerNric + "-" + projectName;
-        return findByKey(key);
+        // Probe key: the lookup builds no string and allocates no key
+        return findByKey(NricProjectKey.probe(officerNric, projectName));
     }
 
     public List<Registration> findByOfficer(String officerNric) {
-        if (!loaded) load();
-        return data.values().stream()
-                   .filter(reg -> reg.getOfficerNric().equals(officerNric))
-                   .collect(Collectors.toList());
+        return read(() -> {
+            Map<NricProjectKey, Registration> regs = byOfficer.get(officerNric);
+            return regs == null ? new ArrayList<>() : new ArrayList<>(regs.values());
+        });
     }
 
     public List<Registration> findByProject(String projectName, RegistrationStatus statusFilter) {
-        if (!loaded) load();
+        return findByProjects(Collections.singleton(projectName), statusFilter);
+    }
+
+    public List<Registration> findByProjects(Collection<String> projectNames, RegistrationStatus statusFilter) {
+        return read(() -> {
+            List<Registration> result = new ArrayList<>();
+            for (String projectName : projectNames) {
+                Map<RegistrationStatus, Map<NricProjectKey, Registration>> byStatus = byProject.get(projectName);
+                if (byStatus == null) continue;
+                if (statusFilter != null) {
+                    Map<NricProjectKey, Registration> regs = byStatus.get(statusFilter);
+                    if (regs != null) result.addAll(regs.values());
+                } else {
+                    for (Map<NricProjectKey, Registration> regs : byStatus.values()) {
+                        result.addAll(regs.values());
+                    }
+                }
+            }
+            return result;
+        });
+    }
+
+    @Override
+    protected Registration createInstance(RowCursor row) {
+        try {
+            return new Registration(
+                row.getString(OFFICER_NRIC),
+                row.getSymbol(PROJECT_NAME),
+                row.getEnum(STATUS, RegistrationStatus.class)
+            );
+        } catch (Exception e) {
+            throw new DataLoadError("Error creating Registration from row: " + row + ". Error: " + e);
+        }
+    }
 
-        return data.values().stream()
-                .filter(reg -> reg.getProjectName().equals(projectName))
-                .filter(reg -> statusFilter == null || reg.getStatus() == statusFilter)
-                .collect(Collectors.toList());
+    @Override
+    protected void toStorageRow(Registration item, RowWriter row) {
+        row.setString(OFFICER_NRIC, item.getOfficerNric())
+           .setString(PROJECT_NAME, item.getProjectName())
+           .setEnum(STATUS, item.getStatus());
     }
 
     @Override
-    protected Registration createInstance(Map<String, Object> row) {
-        // You must implement this based on how your Registration constructor works
-        throw new UnsupportedOperationException("createInstance not yet implemented");
+    protected NricProjectKey getKey(Registration item) {
+        return NricProjectKey.of(item.getOfficerNric(), item.getProjectName());
     }
 
+    // Registrations are mutated in place by setStatus() before update() is called, so the previous status
+    // is looked up from what was recorded when the item was last indexed rather than from the item itself
     @Override
-    protected Map<String, Object> toStorageMap(Registration item) {
-        // Implement this based on how your Registration fields should be saved
-        throw new UnsupportedOperationException("toStorageMap not yet implemented");
+    protected void onItemStored(NricProjectKey key, Registration item) {
+        RegistrationStatus previous = indexedStatus.put(key, item.getStatus());
+        Map<RegistrationStatus, Map<NricProjectKey, Registration>> byStatus =
+                byProject.computeIfAbsent(item.getProjectName(), name -> new EnumMap<>(RegistrationStatus.class));
+        if (previous != null && previous != item.getStatus()) {
+            removeFrom(byStatus, previous, key);
+        }
+        byStatus.computeIfAbsent(item.getStatus(), status -> new LinkedHashMap<>()).put(key, item);
+        byOfficer.computeIfAbsent(item.getOfficerNric(), nric -> new LinkedHashMap<>()).put(key, item);
     }
 
     @Override
-    protected String getKey(Registration item) {
-        return item.getOfficerNric() + "-" + item.getProjectName();
+    protected void onItemRemoved(NricProjectKey key, Registration item) {
+        RegistrationStatus previous = indexedStatus.remove(key);
+        Map<RegistrationStatus, Map<NricProjectKey, Registration>> byStatus = byProject.get(item.getProjectName());
+        if (previous != null && byStatus != null) {
+            removeFrom(byStatus, previous, key);
+            if (byStatus.isEmpty()) byProject.remove(item.getProjectName());
+        }
+        Map<NricProjectKey, Registration> regs = byOfficer.get(item.getOfficerNric());
+        if (regs != null) {
+            regs.remove(key);
+            if (regs.isEmpty()) byOfficer.remove(item.getOfficerNric());
+        }
+    }
+
+    @Override
+    protected void rebuildIndexes() {
+        byOfficer.clear();
+        byProject.clear();
+        indexedStatus.clear();
+        for (Map.Entry<NricProjectKey, Registration> entry : data.entrySet()) {
+            onItemStored(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private static void removeFrom(Map<RegistrationStatus, Map<NricProjectKey, Registration>> byStatus, RegistrationStatus status, NricProjectKey key) {
+        Map<NricProjectKey, Registration> regs = byStatus.get(status);
+        if (regs == null) return;
+        regs.remove(key);
+        if (regs.isEmpty()) byStatus.remove(status);
     }
 }
@@ -0,0 +1,180 @@
+package repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import common.FilePath;
+import common.Tuple;
+import exception.DataSaveError;
+import interfaces.IBaseRepository;
+import storage.TransactionJournal;
+import storage.WriteAheadJournal.Operation;
+
+/**
+ * Hands out units of work over a fixed set of repositories and owns the shared transaction journal.
+ * A transaction commits with one journal append, and that is its only synced write in durable mode.
+ * Its rows are also passed to each repository's own journal or write-behind buffer, tagged with the
+ * transaction ID, but not synced there: a checkpoint syncs every repository before truncating the
+ * transaction journal. After a crash, {@link #recover()} replays into each repository the transactions
+ * newer than the last one its journal recorded.
+ */
+public class TransactionManager {
+
+    // The transaction journal is truncated once it holds this many records and no transaction is in flight
+    private static final int CHECKPOINT_RECORDS = 1000;
+
+    private final Map<String, BaseRepository<?, ?>> repositories = new HashMap<>();
+    private final TransactionJournal journal;
+    private final AtomicLong lastId = new AtomicLong();
+    // Transactions that committed but could not be passed on to their repositories; replayed on the next start
+    private final Set<Long> unapplied = ConcurrentHashMap.newKeySet();
+    // Commits hold the read side from writing their commit record until it is synced; truncation takes the write side
+    private final ReentrantReadWriteLock checkpointLock = new ReentrantReadWriteLock();
+    private volatile boolean recovered;
+
+    public TransactionManager(List<IBaseRepository<?, ?>> repositories, boolean durable) {
+        for (IBaseRepository<?, ?> repo : repositories) {
+            if (repo instanceof BaseRepository) {
+                BaseRepository<?, ?> base = (BaseRepository<?, ?>) repo;
+                this.repositories.put(base.getSourceId(), base);
+            }
+        }
+        this.journal = new TransactionJournal(FilePath.TRANSACTION.getPath(), durable);
+    }
+
+    public TransactionManager(List<IBaseRepository<?, ?>> repositories) {
+        this(repositories, false);
+    }
+
+    // Starts a new unit of work; use with try-with-resources so it rolls back unless committed
+    public UnitOfWork begin() {
+        if (!recovered) recover();
+        return new UnitOfWork(this);
+    }
+
+    // Replays committed transactions that had not reached their repositories. Run once the repositories are loaded.
+    public synchronized void recover() {
+        if (recovered) return;
+        // IDs continue after the highest one any repository recorded, even if the transaction journal was truncated since
+        for (BaseRepository<?, ?> repository : repositories.values()) {
+            lastId.accumulateAndGet(repository.getTransactionId(), Math::max);
+        }
+        long maxId = journal.replayPending(this::redo);
+        lastId.accumulateAndGet(maxId, Math::max);
+        recovered = true;
+    }
+
+    /**
+     * Syncs every repository's share of the committed transactions, then truncates the transaction journal
+     * if no transaction is in flight or waiting to be replayed and none committed in the meantime.
+     */
+    public void checkpoint() {
+        // Outside the checkpoint lock: committing units of work take it while holding repository monitors
+        for (BaseRepository<?, ?> repository : repositories.values()) {
+            repository.syncTransactions();
+        }
+        Lock lock = checkpointLock.writeLock();
+        if (!lock.tryLock()) return;
+        try {
+            if (!unapplied.isEmpty()) return;
+            for (BaseRepository<?, ?> repository : repositories.values()) {
+                if (repository.hasUnsyncedTransactions()) return;
+            }
+            journal.truncate();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void checkpointIfLarge() {
+        if (journal.getRecordCount() >= CHECKPOINT_RECORDS) checkpoint();
+    }
+
+    /**
+     * Writes the commit record, then runs {@code persist} with the transaction ID to pass the rows on to the
+     * repositories. Called with the repositories locked; nothing is synced yet, and the caller must call
+     * {@link #awaitDurable} with the returned ID once it has released them, so concurrent commits share fsyncs.
+     * @throws DataSaveError Only if the commit record itself could not be written, i.e. nothing was committed.
+     */
+    long commit(List<TransactionJournal.Change> records, LongConsumer persist) throws DataSaveError {
+        long id = lastId.incrementAndGet();
+        // Held until awaitDurable(), so the journal is never truncated under a transaction that is not yet on disk
+        checkpointLock.readLock().lock();
+        try {
+            journal.commit(id, records);
+        } catch (RuntimeException e) {
+            checkpointLock.readLock().unlock();
+            throw e;
+        }
+        // Committed from here on; a failure below must not undo the transaction
+        try {
+            persist.accept(id);
+        } catch (RuntimeException e) {
+            markUnapplied(id, e);
+        }
+        return id;
+    }
+
+    /**
+     * Waits until the commit record of a transaction is on disk; concurrent commits share the fsync.
+     * @throws DataSaveError If the commit record cannot be synced. The transaction stays applied in memory,
+     *         but it is not known to have reached the disk.
+     */
+    void awaitDurable(long id) throws DataSaveError {
+        try {
+            journal.sync();
+        } finally {
+            checkpointLock.readLock().unlock();
+        }
+    }
+
+    private void markUnapplied(long id, RuntimeException e) {
+        unapplied.add(id);
+        System.out.println("Warning: Transaction " + id + " is committed but not yet saved to its repositories ("
+                + e.getMessage() + "); it will be replayed on the next start.");
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T, K> void persist(BaseRepository<T, K> repository, List<Tuple<Operation, Object>> items, long transactionId) {
+        List<Tuple<Operation, T>> typed = new ArrayList<>(items.size());
+        for (Tuple<Operation, Object> item : items) {
+            typed.add(new Tuple<>(item.getFirst(), (T) item.getSecond()));
+        }
+        repository.persistCommitted(typed, transactionId);
+    }
+
+    // Repositories whose journal already recorded this transaction, or a later one, hold its rows and are skipped
+    private void redo(long id, List<TransactionJournal.Change> changes) {
+        Map<BaseRepository<?, ?>, List<Tuple<Operation, Object>>> byRepository = new LinkedHashMap<>();
+        for (TransactionJournal.Change change : changes) {
+            BaseRepository<?, ?> repo = repositories.get(change.getSourceId());
+            if (repo == null) {
+                System.out.println("Warning: Transaction " + id + " refers to unknown source " + change.getSourceId());
+                continue;
+            }
+            if (repo.getTransactionId() >= id) continue;
+            byRepository.computeIfAbsent(repo, r -> new ArrayList<>()).add(redo(repo, change));
+        }
+        if (byRepository.isEmpty()) return;
+        for (Map.Entry<BaseRepository<?, ?>, List<Tuple<Operation, Object>>> entry : byRepository.entrySet()) {
+            persist(entry.getKey(), entry.getValue(), id);
+        }
+        System.out.println("Recovered transaction " + id + " (" + changes.size() + " changes).");
+    }
+
+    // Replay is an upsert or removal per row, like the repository journals, so repeating it is harmless
+    private static <T, K> Tuple<Operation, Object> redo(BaseRepository<T, K> repo, TransactionJournal.Change change) {
+        T item = repo.decode(change.getRow());
+        repo.applyInMemory(change.getOperation(), repo.keyOf(item), item);
+        return new Tuple<>(change.getOperation(), item);
+    }
+}
@@ -0,0 +1,278 @@
+package repository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import common.Tuple;
+import exception.DataSaveError;
+import exception.IntegrityError;
+import interfaces.IBaseRepository;
+import storage.TransactionJournal;
+import storage.WriteAheadJournal.Operation;
+
+/**
+ * Buffers changes to one or more repositories and commits them as a single transaction: they are
+ * applied in memory while all the repositories involved are locked, then persisted with one commit
+ * record. If anything fails before that record is written, every change is undone in memory.
+ *
+ * Changes to existing items are made through {@link #modify}: the change is only recorded, and at commit
+ * it runs on a copy of the item's current state, which then replaces the item. Nothing another thread can
+ * see is touched before the commit, and after it callers should look items up again for their new state.
+ * A unit of work belongs to one thread; closing it without committing rolls it back.
+ */
+public final class UnitOfWork implements AutoCloseable {
+
+    private final TransactionManager manager;
+    private final List<Change<?, ?>> changes = new ArrayList<>();
+    private final List<Runnable> compensations = new ArrayList<>();
+    private boolean finished;
+    private long transactionId;
+
+    UnitOfWork(TransactionManager manager) {
+        this.manager = manager;
+    }
+
+    // Adds a new item; fails at commit if the repository would reject adding it directly, e.g. for a duplicate key
+    public <T, K> void add(IBaseRepository<T, K> repository, T item) {
+        ensureOpen();
+        BaseRepository<T, K> repo = base(repository);
+        changes.add(new Change<>(repo, Operation.ADD, repo.keyOf(item), item));
+    }
+
+    // Replaces the stored item with the given one, which must be a new object rather than the instance the repository holds
+    public <T, K> void update(IBaseRepository<T, K> repository, T item) {
+        ensureOpen();
+        BaseRepository<T, K> repo = base(repository);
+        changes.add(new Change<>(repo, Operation.UPDATE, repo.keyOf(item), item));
+    }
+
+    // Records a change to the item; at commit it runs on a copy of the item's current state, which is then saved
+    public <T, K> void modify(IBaseRepository<T, K> repository, T item, Consumer<? super T> change) {
+        modify(repository, item, null, null, change);
+    }
+
+    /**
+     * As {@link #modify(IBaseRepository, Object, Consumer)}, but the commit fails with an {@link IntegrityError}
+     * carrying {@code failure} unless the item's current state still passes {@code precondition}. The check runs
+     * with the repository locked, so a concurrent change that invalidates it cannot slip in between.
+     */
+    public <T, K> void modify(IBaseRepository<T, K> repository, T item, Predicate<? super T> precondition, String failure,
+                              Consumer<? super T> change) {
+        ensureOpen();
+        BaseRepository<T, K> repo = base(repository);
+        changes.add(new Change<>(repo, repo.keyOf(item), precondition, failure == null ? "" : failure, change));
+    }
+
+    /**
+     * As {@link #modify(IBaseRepository, Object, Predicate, String, Consumer)}, but an item that no longer passes
+     * {@code precondition}, or no longer exists, is left out of the commit instead of failing it.
+     * @return Tells, once committed, whether the change was applied.
+     */
+    public <T, K> BooleanSupplier modifyIf(IBaseRepository<T, K> repository, T item, Predicate<? super T> precondition,
+                                           Consumer<? super T> change) {
+        ensureOpen();
+        BaseRepository<T, K> repo = base(repository);
+        Change<T, K> modification = new Change<>(repo, repo.keyOf(item), precondition, null, change);
+        changes.add(modification);
+        return () -> modification.applied;
+    }
+
+    public <T, K> void delete(IBaseRepository<T, K> repository, K key) {
+        ensureOpen();
+        changes.add(new Change<>(base(repository), Operation.DELETE, key, null));
+    }
+
+    /**
+     * Registers an action that reverts a change made outside the repositories, run if this unit of work rolls back.
+     * When a commit fails, it runs while the repositories are still locked.
+     */
+    public void onRollback(Runnable compensation) {
+        ensureOpen();
+        compensations.add(compensation);
+    }
+
+    /**
+     * Applies and persists all buffered changes atomically.
+     * @throws IntegrityError If an added key already exists or an updated or deleted key does not.
+     * @throws DataSaveError If the commit record cannot be written; in both cases nothing was committed and
+     *         the unit of work has been rolled back. Also thrown if the written record cannot be synced, in
+     *         which case the changes stay applied but may not survive a crash.
+     */
+    public void commit() throws IntegrityError, DataSaveError {
+        ensureOpen();
+        finished = true;
+        if (changes.isEmpty()) return;
+        List<BaseRepository<?, ?>> repositories = lockOrder();
+        lockAndRun(repositories, 0);
+        if (transactionId == 0) return; // Every change was skipped
+        // Outside the repository locks, so other transactions and writers can join the same fsync
+        manager.awaitDurable(transactionId);
+        manager.checkpointIfLarge();
+    }
+
+    // Discards the buffered changes and runs the registered compensations
+    public void rollback() {
+        if (finished) return;
+        finished = true;
+        runCompensations();
+    }
+
+    @Override
+    public void close() {
+        rollback();
+    }
+
+    // Repositories are always locked in the same order, so concurrent units of work cannot deadlock
+    private List<BaseRepository<?, ?>> lockOrder() {
+        List<BaseRepository<?, ?>> repositories = new ArrayList<>();
+        for (Change<?, ?> change : changes) {
+            if (!repositories.contains(change.repository)) repositories.add(change.repository);
+        }
+        repositories.sort(Comparator.comparing(BaseRepository::getSourceId));
+        return repositories;
+    }
+
+    private void lockAndRun(List<BaseRepository<?, ?>> repositories, int index) {
+        if (index == repositories.size()) {
+            applyAndPersist();
+            return;
+        }
+        synchronized (repositories.get(index)) {
+            lockAndRun(repositories, index + 1);
+        }
+    }
+
+    // Runs with every repository involved locked
+    private void applyAndPersist() {
+        List<TransactionJournal.Change> records = new ArrayList<>(changes.size());
+        int applied = 0;
+        try {
+            for (Change<?, ?> change : changes) {
+                change.apply();
+                applied++;
+                if (change.applied) records.add(change.record());
+            }
+            if (records.isEmpty()) return;
+            transactionId = manager.commit(records, id -> {
+                Map<BaseRepository<?, ?>, List<Tuple<Operation, Object>>> byRepository = new LinkedHashMap<>();
+                for (Change<?, ?> change : changes) {
+                    if (!change.applied) continue;
+                    byRepository.computeIfAbsent(change.repository, repo -> new ArrayList<>())
+                            .add(new Tuple<>(change.operation, change.persistedItem()));
+                }
+                for (Map.Entry<BaseRepository<?, ?>, List<Tuple<Operation, Object>>> entry : byRepository.entrySet()) {
+                    TransactionManager.persist(entry.getKey(), entry.getValue(), id);
+                }
+            });
+        } catch (RuntimeException e) {
+            // Nothing was committed: undo in reverse order, and compensate before anyone else sees the restored items
+            for (int i = applied - 1; i >= 0; i--) {
+                changes.get(i).undo();
+            }
+            runCompensations();
+            throw e;
+        }
+    }
+
+    private void runCompensations() {
+        for (int i = compensations.size() - 1; i >= 0; i--) {
+            try {
+                compensations.get(i).run();
+            } catch (RuntimeException e) {
+                System.out.println("CRITICAL: Failed to roll back a change: " + e.getMessage());
+            }
+        }
+    }
+
+    private void ensureOpen() {
+        if (finished) {
+            throw new IllegalStateException("Unit of work has already been committed or rolled back.");
+        }
+    }
+
+    private static <T, K> BaseRepository<T, K> base(IBaseRepository<T, K> repository) {
+        if (!(repository instanceof BaseRepository)) {
+            throw new IllegalArgumentException("Transactions require a BaseRepository, got " + repository.getClass().getSimpleName());
+        }
+        return (BaseRepository<T, K>) repository;
+    }
+
+    private static final class Change<T, K> {
+        final BaseRepository<T, K> repository;
+        final Operation operation;
+        final K key;
+        final Predicate<? super T> precondition;
+        // Null if a failed precondition skips the change instead of failing the commit
+        final String failure;
+        final Consumer<? super T> modification;
+        T item;
+        T previous;
+        boolean applied;
+
+        Change(BaseRepository<T, K> repository, Operation operation, K key, T item) {
+            this.repository = repository;
+            this.operation = operation;
+            this.key = key;
+            this.item = item;
+            this.precondition = null;
+            this.failure = "";
+            this.modification = null;
+        }
+
+        Change(BaseRepository<T, K> repository, K key, Predicate<? super T> precondition, String failure,
+               Consumer<? super T> modification) {
+            this.repository = repository;
+            this.operation = Operation.UPDATE;
+            this.key = key;
+            this.precondition = precondition;
+            this.failure = failure;
+            this.modification = modification;
+        }
+
+        void apply() {
+            if (modification != null) {
+                T current = repository.getInMemory(key);
+                if (current == null || (precondition != null && !precondition.test(current))) {
+                    if (failure == null) return;
+                    throw new IntegrityError(current == null ? "Item not found: " + key
+                            : failure.isEmpty() ? "Item was changed concurrently: " + key : failure);
+                }
+                // Earlier changes to the same key in this unit of work are already stored, so they carry over
+                item = repository.decode(repository.encodeRow(current));
+                modification.accept(item);
+            } else if (operation == Operation.ADD) {
+                // The repository's own duplicate checks, e.g. one active application per applicant
+                repository.checkAdd(key, item);
+            } else if (!repository.containsKeyInMemory(key)) {
+                throw new IntegrityError("Item not found: " + key);
+            }
+            previous = repository.applyInMemory(operation, key, item);
+            applied = true;
+        }
+
+        void undo() {
+            if (!applied) return;
+            applied = false;
+            if (previous == null) {
+                repository.applyInMemory(Operation.DELETE, key, null);
+            } else {
+                repository.applyInMemory(Operation.UPDATE, key, previous);
+            }
+        }
+
+        // Deleted items are recorded with their last state, like in the repository journals
+        T persistedItem() {
+            return operation == Operation.DELETE ? previous : item;
+        }
+
+        TransactionJournal.Change record() {
+            return new TransactionJournal.Change(repository.getSourceId(), operation, repository.encodeRow(persistedItem()));
+        }
+    }
+}
@@ -8,11 +8,17 @@ import model.HDBOfficer;
 import model.HDBManager;
 import interfaces.IBaseRepository;
 import interfaces.IUserRepository;
+import util.NricMap;
 import exception.DataSaveError;
 import exception.IntegrityError;
 import exception.OperationError;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.StampedLock;
 
 public class UserRepositoryFacade implements IUserRepository {
 
@@ -20,8 +26,10 @@ public class UserRepositoryFacade implements IUserRepository {
     private final IBaseRepository<HDBOfficer, String> officerRepo;
     private final IBaseRepository<HDBManager, String> managerRepo;
 
-    private final Map<String, User> allUsers = new HashMap<>();
-    private boolean loaded = false;
+    // Keyed by encoded NRIC; guarded by allUsersLock, since saveUser() adds to it while sessions are looking users up
+    private final NricMap<User> allUsers = new NricMap<>();
+    private final StampedLock allUsersLock = new StampedLock();
+    private volatile boolean loaded = false;
 
     public UserRepositoryFacade(IBaseRepository<Applicant, String> applicantRepo,
                                 IBaseRepository<HDBOfficer, String> officerRepo,
@@ -32,16 +40,45 @@ public class UserRepositoryFacade implements IUserRepository {
     }
 
     @Override
-    public void loadAllUsers() {
+    public synchronized void loadAllUsers() {
         if (loaded) return;
 
+        long stamp = allUsersLock.writeLock();
+        try {
+            mergeUsers();
+        } finally {
+            allUsersLock.unlockWrite(stamp);
+        }
+        loaded = true;
+    }
+
+    // Called with the write lock held
+    private void mergeUsers() {
         allUsers.clear();
         int duplicates = 0;
 
+        // The three user files are independent, so load them concurrently on a pool of their own rather than
+        // the shared common pool; repositories that are already loaded (e.g. by PersistenceManager.loadAll) return immediately
         List<IBaseRepository<? extends User, String>> repos = List.of(applicantRepo, officerRepo, managerRepo);
-        for (IBaseRepository<? extends User, String> repo : repos) {
+        List<CompletableFuture<Void>> loads = new ArrayList<>(repos.size());
+        ExecutorService loader = Executors.newFixedThreadPool(repos.size(), runnable -> {
+            Thread thread = new Thread(runnable, "user-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            for (IBaseRepository<? extends User, String> repo : repos) {
+                loads.add(CompletableFuture.runAsync(repo::load, loader));
+            }
+        } finally {
+            loader.shutdown(); // Already submitted loads still run
+        }
+
+        // Merge in a fixed order so duplicate NRICs resolve the same way as before
+        for (int i = 0; i < repos.size(); i++) {
+            IBaseRepository<? extends User, String> repo = repos.get(i);
             try {
-                repo.load();
+                loads.get(i).join();
                 List<? extends User> users = repo.getAll();
                 for (User user : users) {
                     if (allUsers.containsKey(user.getNric())) {
@@ -53,24 +90,44 @@ public class UserRepositoryFacade implements IUserRepository {
                     allUsers.put(user.getNric(), user);
                 }
             } catch (Exception e) {
-                System.out.printf("Error loading users from %s: %s%n", repo.getClass().getSimpleName(), e.getMessage());
+                Throwable cause = (e instanceof CompletionException && e.getCause() != null) ? e.getCause() : e;
+                System.out.printf("Error loading users from %s: %s%n", repo.getClass().getSimpleName(), cause.getMessage());
             }
         }
 
-        loaded = true;
         System.out.printf("Total unique users loaded into facade: %d (encountered %d duplicates).%n", allUsers.size(), duplicates);
     }
 
     @Override
     public Optional<User> findUserByNric(String nric) {
         if (!loaded) loadAllUsers();
-        return Optional.ofNullable(allUsers.get(nric));
+        // Optimistic read: a probe of the table that is retried under the read lock if saveUser() overlapped it
+        long stamp = allUsersLock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                User user = allUsers.get(nric);
+                if (allUsersLock.validate(stamp)) return Optional.ofNullable(user);
+            } catch (RuntimeException e) {
+                // Torn read during a resize; fall through
+            }
+        }
+        stamp = allUsersLock.readLock();
+        try {
+            return Optional.ofNullable(allUsers.get(nric));
+        } finally {
+            allUsersLock.unlockRead(stamp);
+        }
     }
 
     @Override
     public List<User> getAllUsers() {
         if (!loaded) loadAllUsers();
-        return new ArrayList<>(allUsers.values());
+        long stamp = allUsersLock.readLock();
+        try {
+            return allUsers.values();
+        } finally {
+            allUsersLock.unlockRead(stamp);
+        }
     }
 
     @Override
@@ -102,7 +159,12 @@ public class UserRepositoryFacade implements IUserRepository {
             throw new DataSaveError("Failed to update user " + user.getNric() + ": " + ex.getMessage());
         }
 
-        allUsers.put(user.getNric(), user);
+        long stamp = allUsersLock.writeLock();
+        try {
+            allUsers.put(user.getNric(), user);
+        } finally {
+            allUsersLock.unlockWrite(stamp);
+        }
     }
 
     @Override
@@ -2,10 +2,12 @@ package service;
 
 
 import common.ApplicationStatus;
+import common.BatchItemResult;
 import common.FlatType;
 import common.Tuple;
 import common.UserRole;
 import exception.OperationError;
+import exception.DataSaveError;
 import exception.IntegrityError;
 import model.Application;
 import model.Applicant;
@@ -13,30 +15,44 @@ import model.HDBManager;
 import model.HDBOfficer;
 import model.Project;
 import interfaces.IApplicationRepository;
+import repository.TransactionManager;
+import repository.UnitOfWork;
 import service.interfaces.IApplicationService;
+import service.interfaces.IFlatInventoryService;
 import service.interfaces.IProjectService;
 import service.interfaces.IRegistrationService;
 import interfaces.IUserRepository;
 import util.InputUtil;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
 
 public class ApplicationService implements IApplicationService {
     private IApplicationRepository appRepo;
     private IProjectService projectService;
     private IRegistrationService regService;
     private IUserRepository userRepo;
+    private IFlatInventoryService flatInventory;
+    private TransactionManager transactions;
 
     // Constructor
     public ApplicationService(IApplicationRepository applicationRepository, 
                               IProjectService projectService,
                               IRegistrationService registrationService, 
-                              IUserRepository userRepository) {
+                              IUserRepository userRepository,
+                              IFlatInventoryService flatInventoryService,
+                              TransactionManager transactionManager) {
         this.appRepo = applicationRepository;
         this.projectService = projectService;
         this.regService = registrationService;
         this.userRepo = userRepository;
+        this.flatInventory = flatInventoryService;
+        this.transactions = transactionManager;
     }
 
     /**
@@ -89,6 +105,18 @@ public class ApplicationService implements IApplicationService {
         return appRepo.findByProjectName(projectName);
     }
 
+    /**
+     * Gets the applications for a project that have a given status and withdrawal flag.
+     * @param projectName Name of the project.
+     * @param statusFilter Status to match, or null for any status.
+     * @param withdrawalFilter Withdrawal flag to match, or null for either.
+     * @return List of matching applications.
+     */
+    @Override
+    public List<Application> getApplicationsForProject(String projectName, ApplicationStatus statusFilter, Boolean withdrawalFilter) {
+        return appRepo.findByProjectName(projectName, statusFilter, withdrawalFilter);
+    }
+
     /**
      * Gets all applications.
      * @return List of all applications.
@@ -232,6 +260,95 @@ public class ApplicationService implements IApplicationService {
         }
     }
 
+    /**
+     * Approves or rejects many applications at once. Each project is resolved and checked once, unit
+     * availability is worked out once per (project, flat type), and every status change is saved by a single commit.
+     * Approvals beyond the units not yet taken by other successful applications are marked unsuccessful,
+     * as a single approval is when no units remain.
+     * @param manager The manager processing the applications.
+     * @param applications The applications to process.
+     * @param approve True to approve, false to reject.
+     * Applications that stop being pending, or get a withdrawal request, before the commit are left
+     * as they are and reported as failed.
+     * @return One result per application, in the order given.
+     * @throws OperationError If the changes cannot be saved; no application is changed in that case.
+     */
+    public List<BatchItemResult<Application>> managerBulkProcessApplications(HDBManager manager, List<Application> applications, boolean approve) throws OperationError {
+        List<BatchItemResult<Application>> results = new ArrayList<>(applications.size());
+        Map<String, Optional<Project>> projects = new HashMap<>();
+        // Units still free per project and flat type, consumed as approvals are granted
+        Map<String, int[]> remainingUnits = new HashMap<>();
+        // Checked again at commit with the repository locked, so a concurrent approval, booking or withdrawal is never overwritten
+        Predicate<Application> stillPending = app -> app.getStatus() == ApplicationStatus.PENDING && !app.isRequestWithdrawal();
+        // Indexed like results; null where nothing was buffered
+        BooleanSupplier[] applied = new BooleanSupplier[applications.size()];
+
+        try (UnitOfWork uow = transactions.begin()) {
+            for (Application application : applications) {
+                Optional<Project> project = projects.computeIfAbsent(application.getProjectName(), projectService::findProjectByName);
+                if (project.isEmpty()) {
+                    results.add(BatchItemResult.failed(application, "Project not found."));
+                } else if (!project.get().getManagerNric().equals(manager.getNric())) {
+                    results.add(BatchItemResult.failed(application, "You do not manage this project."));
+                } else if (application.getStatus() != ApplicationStatus.PENDING) {
+                    results.add(BatchItemResult.failed(application, "Application status is not PENDING."));
+                } else if (application.isRequestWithdrawal()) {
+                    results.add(BatchItemResult.failed(application, "Application has a pending withdrawal request."));
+                } else if (!approve) {
+                    applied[results.size()] = uow.modifyIf(appRepo, application, stillPending, app -> app.setStatus(ApplicationStatus.UNSUCCESSFUL));
+                    results.add(BatchItemResult.succeeded(application, "Rejected."));
+                } else {
+                    int[] remaining = remainingUnits.computeIfAbsent(application.getProjectName(), name -> unclaimedUnits(project.get()));
+                    int flatType = application.getFlatType().ordinal();
+                    if (remaining[flatType] > 0) {
+                        remaining[flatType]--;
+                        applied[results.size()] = uow.modifyIf(appRepo, application, stillPending, app -> app.setStatus(ApplicationStatus.SUCCESSFUL));
+                        results.add(BatchItemResult.succeeded(application, "Approved."));
+                    } else {
+                        applied[results.size()] = uow.modifyIf(appRepo, application, stillPending, app -> app.setStatus(ApplicationStatus.UNSUCCESSFUL)); // Auto-reject
+                        results.add(BatchItemResult.failed(application, "No " + application.getFlatType() + " units available. Application rejected."));
+                    }
+                }
+            }
+            uow.commit();
+        } catch (IntegrityError | DataSaveError | IllegalArgumentException e) {
+            throw new OperationError("Failed to save batch: " + e.getMessage() + ". No applications were changed.");
+        }
+
+        for (int i = 0; i < results.size(); i++) {
+            if (applied[i] != null && !applied[i].getAsBoolean()) {
+                results.set(i, BatchItemResult.failed(applications.get(i), "Application changed while the batch ran. Left unchanged."));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Approves or rejects every pending application without a withdrawal request in the manager's projects that matches the filter.
+     * @see #managerBulkProcessApplications(HDBManager, List, boolean)
+     */
+    public List<BatchItemResult<Application>> managerBulkProcessApplications(HDBManager manager, Predicate<Application> filter, boolean approve) throws OperationError {
+        List<Application> selected = new ArrayList<>();
+        for (Project project : projectService.getProjectsByManager(manager.getNric())) {
+            for (Application application : appRepo.findByProjectName(project.getProjectName(), ApplicationStatus.PENDING, false)) {
+                if (filter.test(application)) selected.add(application);
+            }
+        }
+        return managerBulkProcessApplications(manager, selected, approve);
+    }
+
+    // Units per flat type (by ordinal) not yet promised to a successful application awaiting booking
+    private int[] unclaimedUnits(Project project) {
+        int[] remaining = new int[FlatType.values().length];
+        for (FlatType flatType : FlatType.values()) {
+            remaining[flatType.ordinal()] = flatInventory.getAvailableUnits(project, flatType);
+        }
+        for (Application successful : appRepo.findByProjectName(project.getProjectName(), ApplicationStatus.SUCCESSFUL, null)) {
+            remaining[successful.getFlatType().ordinal()]--;
+        }
+        return remaining;
+    }
+
     // Manager Approve Withdrawal
     public void managerApproveWithdrawal(HDBManager manager, Application application) throws OperationError {
         if (!managerCanManageApp(manager, application)) {
@@ -241,24 +358,27 @@ public class ApplicationService implements IApplicationService {
             throw new OperationError("No withdrawal request is pending.");
         }
 
-        try {
-            application.setStatus(ApplicationStatus.UNSUCCESSFUL);
-            application.setWithdrawalRequest(false);
-
-            if (application.getStatus() == ApplicationStatus.BOOKED) {
-                Project project = projectService.findProjectByName(application.getProjectName());
-                if (project != null) {
-                    boolean success = project.increaseUnitCount(application.getFlatType());
-                    if (success) {
-                        projectService.updateProject(project);
-                    } else {
-                        throw new OperationError("Could not increase unit count for " + application.getFlatType() + " in project " + project.getProjectName());
-                    }
+        // The application and a booked unit's return are saved by one commit. The preconditions run at commit
+        // with the repositories locked, so a withdrawal approved twice, or rebooked meanwhile, fails instead of
+        // returning a second unit.
+        boolean wasBooked = application.getStatus() == ApplicationStatus.BOOKED;
+        try (UnitOfWork uow = transactions.begin()) {
+            uow.modify(appRepo, application,
+                    app -> app.isRequestWithdrawal() && (app.getStatus() == ApplicationStatus.BOOKED) == wasBooked,
+                    "Application was changed by someone else. Please try again.",
+                    app -> {
+                        app.setStatus(ApplicationStatus.UNSUCCESSFUL);
+                        app.setWithdrawalRequest(false);
+                    });
+            // A booked unit goes back into the project's inventory
+            if (wasBooked) {
+                Optional<Project> project = projectService.findProjectByName(application.getProjectName());
+                if (project.isPresent()) {
+                    flatInventory.returnUnit(project.get(), application.getFlatType(), uow);
                 }
             }
-
-            appRepo.update(application);
-        } catch (OperationError | IntegrityError e) {
+            uow.commit();
+        } catch (OperationError | IntegrityError | DataSaveError | IllegalArgumentException e) {
             throw new OperationError("Failed to process withdrawal approval: " + e.getMessage());
         }
     }
@@ -282,8 +402,9 @@ public class ApplicationService implements IApplicationService {
 
     // Officer Book Flat
     public Tuple<Project, Applicant> officerBookFlat(HDBOfficer officer, Application application) throws OperationError {
-        Project project = this._project_service.findProjectByName(application.getProjectName());
-        if (!this._project_service.getHandledProjectNamesForOfficer(officer.nric).contains(project.getProjectName())) {
+        Project project = projectService.findProjectByName(application.getProjectName())
+                .orElseThrow(() -> new IntegrityError("Project '" + application.getProjectName() + "' not found."));
+        if (!projectService.getHandledProjectNamesForOfficer(officer.getNric()).contains(project.getProjectName())) {
             throw new OperationError("You do not handle this project.");
         }
 
@@ -291,56 +412,46 @@ public class ApplicationService implements IApplicationService {
             throw new OperationError("Application status must be SUCCESSFUL to book.");
         }
 
-        Applicant applicant = this._user_repo.findUserByNric(application.getApplicantNric());
-        if (applicant == null) {
-            throw new IntegrityError("Applicant not found.");
-        }
-
-        // --- Manual Transaction ---
-        boolean unitDecreased = false;
-        try {
-            // 1. Decrease unit count in Project model
-            if (!project.decreaseUnitCount(application.getFlatType())) {
-                application.setStatus(ApplicationStatus.UNSUCCESSFUL);
-                this._app_repo.update(application); // Update app status immediately
-                throw new OperationError("Booking failed: No units available.");
+        Applicant applicant = userRepo.findUserByNric(application.getApplicantNric())
+                .filter(user -> user instanceof Applicant)
+                .map(user -> (Applicant) user)
+                .orElseThrow(() -> new IntegrityError("Applicant not found."));
+
+        // 1. Hold back a unit; concurrent bookings for the last units compete here without a global lock
+        Optional<IFlatInventoryService.Reservation> reservation = flatInventory.reserve(project, application.getFlatType());
+        if (reservation.isEmpty()) {
+            // Units held by other bookings in progress may still be released, so only reject once none are left
+            if (flatInventory.getCommittedUnits(project, application.getFlatType()) > 0) {
+                throw new OperationError("Booking failed: Remaining units are being booked. Please try again.");
             }
-            unitDecreased = true;
-
-            // 2. Update Project in repository (this is the core of the update operation)
-            this._project_service.updateProject(project); // Updating the project in the repo
-
-            // 3. Update Application status in model and repository
-            application.setStatus(ApplicationStatus.BOOKED);
-            this._app_repo.update(application);
-
-            // If all steps successful, return data (saving deferred)
-            return new Tuple<>(project, applicant);
-
-        } catch (OperationError | IntegrityError e) {
-            // --- Rollback attempts (Best Effort) ---
-            System.out.println("ERROR during booking: " + e.getMessage() + ". Attempting rollback...");
-
-            // Revert application status in memory & repo
-            application.setStatus(ApplicationStatus.SUCCESSFUL);
-            try {
-                this._app_repo.update(application);
-            } catch (Exception rb_e) {
-                System.out.println("CRITICAL: Failed rollback app status: " + rb_e.getMessage());
-            }
-
-            // Revert project unit count in memory & repo if decreased
-            if (unitDecreased) {
-                project.increaseUnitCount(application.getFlatType());
-                try {
-                    this._project_service.updateProject(project);
-                } catch (Exception rb_e) {
-                    System.out.println("CRITICAL: Failed rollback project units: " + rb_e.getMessage());
-                }
+            try (UnitOfWork uow = transactions.begin()) {
+                uow.modify(appRepo, application,
+                        app -> app.getStatus() == ApplicationStatus.SUCCESSFUL,
+                        "Application status must be SUCCESSFUL to book.",
+                        app -> app.setStatus(ApplicationStatus.UNSUCCESSFUL));
+                uow.commit();
+            } catch (IntegrityError | DataSaveError e) {
+                throw new OperationError("Booking failed: " + e.getMessage());
             }
+            throw new OperationError("Booking failed: No units available.");
+        }
 
-            throw new OperationError("Booking failed: " + e.getMessage() + ". Rollback attempted."); // Re-raise original error
+        // 2. Book the application and the unit together; both are saved by one commit or neither is.
+        // The status is checked again at commit, with the repositories locked, so two officers cannot book it twice.
+        try (UnitOfWork uow = transactions.begin()) {
+            uow.modify(appRepo, application,
+                    app -> app.getStatus() == ApplicationStatus.SUCCESSFUL,
+                    "Application status must be SUCCESSFUL to book.",
+                    app -> app.setStatus(ApplicationStatus.BOOKED));
+            flatInventory.commit(reservation.get(), uow);
+            uow.commit();
+        } catch (OperationError | IntegrityError | DataSaveError e) {
+            flatInventory.release(reservation.get()); // No effect once the unit of work has taken the reservation
+            throw new OperationError("Booking failed: " + e.getMessage());
         }
+
+        // The commit stored new copies of the application and project; return the project with its new unit count
+        return new Tuple<>(projectService.findProjectByName(project.getProjectName()).orElse(project), applicant);
     }
 
 
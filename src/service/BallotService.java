@@ -0,0 +1,188 @@
+package service;
+
+import common.ApplicationStatus;
+import common.BallotOutcome;
+import common.FlatType;
+import exception.DataSaveError;
+import exception.IntegrityError;
+import exception.OperationError;
+import interfaces.IApplicationRepository;
+import model.Application;
+import model.HDBManager;
+import model.Project;
+import repository.TransactionManager;
+import repository.UnitOfWork;
+import service.interfaces.IBallotService;
+import service.interfaces.IFlatInventoryService;
+import service.interfaces.IProjectService;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Settles oversubscribed projects by ballot. Every project is drawn as a separate task on a fork-join pool;
+ * the draws only read the repositories, and all their results are saved together by one unit of work.
+ * An application that is no longer pending, or has a withdrawal request, when the results are saved is
+ * left as it is and counted as skipped.
+ *
+ * A draw is reproducible: the entrants are put in NRIC order before shuffling, and the random generator
+ * of each (project, flat type) is seeded from the ballot seed, the project name and the flat type only.
+ */
+public class BallotService implements IBallotService {
+
+    private final IApplicationRepository _appRepo;
+    private final IProjectService _projectService;
+    private final IFlatInventoryService _flatInventory;
+    private final TransactionManager _transactions;
+    private final ForkJoinPool _pool;
+
+    public BallotService(IApplicationRepository applicationRepository,
+                         IProjectService projectService,
+                         IFlatInventoryService flatInventoryService,
+                         TransactionManager transactionManager,
+                         ForkJoinPool pool) {
+        this._appRepo = applicationRepository;
+        this._projectService = projectService;
+        this._flatInventory = flatInventoryService;
+        this._transactions = transactionManager;
+        this._pool = pool;
+    }
+
+    public BallotService(IApplicationRepository applicationRepository,
+                         IProjectService projectService,
+                         IFlatInventoryService flatInventoryService,
+                         TransactionManager transactionManager) {
+        this(applicationRepository, projectService, flatInventoryService, transactionManager, ForkJoinPool.commonPool());
+    }
+
+    @Override
+    public List<BallotOutcome> runBallot(HDBManager manager, long seed) throws OperationError {
+        return runBallot(_projectService.getProjectsByManager(manager.getNric()), seed);
+    }
+
+    @Override
+    public List<BallotOutcome> runBallot(Collection<Project> projects, long seed) throws OperationError {
+        List<Callable<ProjectDraw>> tasks = new ArrayList<>(projects.size());
+        for (Project project : projects) {
+            tasks.add(() -> drawProject(project, seed));
+        }
+
+        List<ProjectDraw> draws = new ArrayList<>(tasks.size());
+        try {
+            for (Future<ProjectDraw> future : _pool.invokeAll(tasks)) {
+                draws.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OperationError("Ballot was interrupted. No applications were changed.");
+        } catch (ExecutionException e) {
+            throw new OperationError("Ballot failed: " + e.getCause().getMessage() + ". No applications were changed.");
+        }
+
+        // Checked again at commit with the repository locked, so a concurrent approval or withdrawal is never overwritten
+        Predicate<Application> stillPending = app -> app.getStatus() == ApplicationStatus.PENDING && !app.isRequestWithdrawal();
+        Map<Draw, List<BooleanSupplier>> saved = new LinkedHashMap<>();
+        try (UnitOfWork uow = _transactions.begin()) {
+            for (ProjectDraw projectDraw : draws) {
+                for (Draw draw : projectDraw.draws) {
+                    List<BooleanSupplier> applied = new ArrayList<>(draw.entrants.size());
+                    for (int i = 0; i < draw.entrants.size(); i++) {
+                        ApplicationStatus result = i < draw.winners ? ApplicationStatus.SUCCESSFUL : ApplicationStatus.UNSUCCESSFUL;
+                        applied.add(uow.modifyIf(_appRepo, draw.entrants.get(i), stillPending, app -> app.setStatus(result)));
+                    }
+                    saved.put(draw, applied);
+                }
+            }
+            uow.commit();
+        } catch (IntegrityError | DataSaveError | IllegalArgumentException e) {
+            throw new OperationError("Failed to save ballot results: " + e.getMessage() + ". No applications were changed.");
+        }
+
+        List<BallotOutcome> outcomes = new ArrayList<>(saved.size());
+        for (Map.Entry<Draw, List<BooleanSupplier>> entry : saved.entrySet()) {
+            Draw draw = entry.getKey();
+            int successful = 0;
+            int skipped = 0;
+            for (int i = 0; i < entry.getValue().size(); i++) {
+                if (!entry.getValue().get(i).getAsBoolean()) {
+                    skipped++;
+                } else if (i < draw.winners) {
+                    successful++;
+                }
+            }
+            outcomes.add(new BallotOutcome(draw.projectName, draw.flatType, draw.entrants.size(), successful, skipped));
+        }
+        return outcomes;
+    }
+
+    // Runs on a pool thread; decides every pending application of the project without changing any
+    private ProjectDraw drawProject(Project project, long seed) {
+        ProjectDraw draw = new ProjectDraw();
+        Map<FlatType, List<Application>> entrants = new EnumMap<>(FlatType.class);
+        for (Application application : _appRepo.findByProjectName(project.getProjectName(), ApplicationStatus.PENDING, false)) {
+            entrants.computeIfAbsent(application.getFlatType(), type -> new ArrayList<>()).add(application);
+        }
+        if (entrants.isEmpty()) return draw;
+
+        int[] claimed = new int[FlatType.values().length];
+        for (Application successful : _appRepo.findByProjectName(project.getProjectName(), ApplicationStatus.SUCCESSFUL, null)) {
+            claimed[successful.getFlatType().ordinal()]++;
+        }
+
+        for (Map.Entry<FlatType, List<Application>> entry : entrants.entrySet()) {
+            FlatType flatType = entry.getKey();
+            List<Application> pool = entry.getValue();
+            int units = Math.max(0, _flatInventory.getAvailableUnits(project, flatType) - claimed[flatType.ordinal()]);
+            int winners = Math.min(units, pool.size());
+
+            // Partial Fisher-Yates: only the first `winners` positions need to be drawn
+            pool.sort(Comparator.comparing(Application::getApplicantNric));
+            SplittableRandom random = new SplittableRandom(drawSeed(seed, project.getProjectName(), flatType));
+            for (int i = 0; i < winners; i++) {
+                int j = i + random.nextInt(pool.size() - i);
+                Application picked = pool.get(j);
+                pool.set(j, pool.get(i));
+                pool.set(i, picked);
+            }
+
+            draw.draws.add(new Draw(project.getProjectName(), flatType, pool, winners));
+        }
+        return draw;
+    }
+
+    // String.hashCode is fixed by the language, so the seed does not depend on the JVM or on load order
+    private static long drawSeed(long seed, String projectName, FlatType flatType) {
+        return (seed * 31 + projectName.hashCode()) * 31 + flatType.ordinal();
+    }
+
+    private static final class ProjectDraw {
+        final List<Draw> draws = new ArrayList<>();
+    }
+
+    // One flat type of one project: the entrants in drawn order, the first `winners` of them successful
+    private static final class Draw {
+        final String projectName;
+        final FlatType flatType;
+        final List<Application> entrants;
+        final int winners;
+
+        Draw(String projectName, FlatType flatType, List<Application> entrants, int winners) {
+            this.projectName = projectName;
+            this.flatType = flatType;
+            this.entrants = entrants;
+            this.winners = winners;
+        }
+    }
+}
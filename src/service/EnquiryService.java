@@ -17,6 +17,7 @@ import interfaces.IUserRepository;
 import service.interfaces.IEnquiryService;
 import service.interfaces.IProjectService;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -43,18 +44,25 @@ public class EnquiryService implements IEnquiryService {
     }
 
 
+    // The repository's indexes already return enquiries in ID order
     @Override
     public List<Enquiry> getEnquiriesByApplicant(String applicantNric) {
-        return _enqRepo.findByApplicant(applicantNric).stream()
-                .sorted((e1, e2) -> Integer.compare(e1.getEnquiryId(), e2.getEnquiryId()))
-                .collect(Collectors.toList());
+        return _enqRepo.findByApplicant(applicantNric);
     }
 
     @Override
     public List<Enquiry> getEnquiriesForProject(String projectName) {
-        return _enqRepo.findByProject(projectName).stream()
-                .sorted((e1, e2) -> Integer.compare(e1.getEnquiryId(), e2.getEnquiryId()))
-                .collect(Collectors.toList());
+        return _enqRepo.findByProject(projectName);
+    }
+
+    @Override
+    public List<Enquiry> getEnquiriesForProjects(Collection<String> projectNames) {
+        return _enqRepo.findByProjects(projectNames, false);
+    }
+
+    @Override
+    public List<Enquiry> getUnrepliedEnquiriesForProjects(Collection<String> projectNames) {
+        return _enqRepo.findByProjects(projectNames, true);
     }
 
     @Override
@@ -86,11 +94,10 @@ public class EnquiryService implements IEnquiryService {
         }
 
         try {
-            // Create an enquiry with a temporary ID 0; the repository will assign the actual ID
-            int newEnquiryId = _enqRepo.getNextId(); // This method should return the next available ID
+            // Reserve the ID up front; concurrent submissions always receive distinct IDs
+            int newEnquiryId = _enqRepo.allocateId();
             Enquiry newEnquiry = new Enquiry(newEnquiryId, applicant.getNric(), project.getProjectName(), text, ""); // Default empty reply
 
-            // Add the new enquiry to the repository (ID will be assigned here)
             _enqRepo.add(newEnquiry);
             
             // Return the created enquiry
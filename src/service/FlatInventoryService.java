@@ -0,0 +1,221 @@
+package service;
+
+import common.FlatType;
+import exception.DataSaveError;
+import exception.IntegrityError;
+import exception.OperationError;
+import model.Project;
+import interfaces.IProjectRepository;
+import repository.TransactionManager;
+import repository.UnitOfWork;
+import service.interfaces.IFlatInventoryService;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Keeps the remaining units of every (project, flat type) in atomic counters so concurrent bookings
+ * never oversell. Reserving and releasing a unit is a single compare-and-set and never blocks;
+ * committing a booking saves the project's new unit count through a unit of work.
+ */
+public class FlatInventoryService implements IFlatInventoryService {
+
+    private final IProjectRepository _projectRepo;
+    private final TransactionManager _transactions;
+
+    // Counters per project name, created from the project's saved unit counts on first use
+    private final ConcurrentHashMap<String, Inventory> _inventories = new ConcurrentHashMap<>();
+
+    public FlatInventoryService(IProjectRepository projectRepository, TransactionManager transactionManager) {
+        this._projectRepo = projectRepository;
+        this._transactions = transactionManager;
+    }
+
+    @Override
+    public int getAvailableUnits(Project project, FlatType flatType) {
+        return Math.max(0, inventoryFor(project).available.get(flatType.ordinal()));
+    }
+
+    @Override
+    public int getCommittedUnits(Project project, FlatType flatType) {
+        return inventoryFor(project).committed.get(flatType.ordinal());
+    }
+
+    @Override
+    public Optional<Reservation> reserve(Project project, FlatType flatType) {
+        Inventory inventory = inventoryFor(project);
+        int index = flatType.ordinal();
+        while (true) {
+            int current = inventory.available.get(index);
+            if (current <= 0) return Optional.empty();
+            if (inventory.available.compareAndSet(index, current, current - 1)) {
+                return Optional.of(new UnitReservation(inventory, project.getProjectName(), flatType));
+            }
+        }
+    }
+
+    @Override
+    public void commit(Reservation reservation) throws OperationError {
+        try (UnitOfWork uow = _transactions.begin()) {
+            commit(reservation, uow);
+            uow.commit();
+        } catch (IntegrityError | DataSaveError e) {
+            throw new OperationError("Failed to save unit count for " + reservation.getProjectName() + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void commit(Reservation reservation, UnitOfWork unitOfWork) throws OperationError {
+        UnitReservation unit = settle(reservation);
+        Inventory inventory = unit.inventory;
+        int index = unit.flatType.ordinal();
+        Project project = _projectRepo.findByName(unit.projectName).orElse(null);
+        if (project == null) {
+            inventory.available.incrementAndGet(index);
+            throw new OperationError("Project '" + unit.projectName + "' not found.");
+        }
+        // The unit already left the available pool when it was reserved; only the saved count changes now.
+        // The count is taken from the stored project when the unit of work commits, with the repository locked.
+        boolean[] counted = new boolean[1];
+        unitOfWork.modify(_projectRepo, project, p -> {
+            int units = savedUnits(p, unit.flatType) - 1;
+            if (units < 0) {
+                throw new IntegrityError("No " + unit.flatType + " units left in " + unit.projectName + ".");
+            }
+            p.setUnitCount(unit.flatType, units);
+            inventory.committed.decrementAndGet(index);
+            counted[0] = true;
+        });
+        unitOfWork.onRollback(() -> {
+            if (counted[0]) inventory.committed.incrementAndGet(index);
+            inventory.available.incrementAndGet(index);
+        });
+    }
+
+    @Override
+    public void release(Reservation reservation) {
+        UnitReservation unit = (UnitReservation) reservation;
+        if (unit.settled.compareAndSet(false, true)) {
+            unit.inventory.available.incrementAndGet(unit.flatType.ordinal());
+        }
+    }
+
+    @Override
+    public void returnUnit(Project project, FlatType flatType) throws OperationError {
+        try (UnitOfWork uow = _transactions.begin()) {
+            returnUnit(project, flatType, uow);
+            uow.commit();
+        } catch (IntegrityError | DataSaveError e) {
+            throw new OperationError("Failed to save unit count for " + project.getProjectName() + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void returnUnit(Project project, FlatType flatType, UnitOfWork unitOfWork) {
+        Inventory inventory = inventoryFor(project);
+        int index = flatType.ordinal();
+        // Offered again as the new count is applied at commit. A booking that reserves it before a rollback
+        // takes it back is still checked against the stored count when it commits, so it cannot oversell.
+        boolean[] counted = new boolean[1];
+        unitOfWork.modify(_projectRepo, project, p -> {
+            p.setUnitCount(flatType, savedUnits(p, flatType) + 1);
+            inventory.committed.incrementAndGet(index);
+            inventory.available.incrementAndGet(index);
+            counted[0] = true;
+        });
+        unitOfWork.onRollback(() -> {
+            if (!counted[0]) return;
+            inventory.committed.decrementAndGet(index);
+            inventory.available.decrementAndGet(index);
+        });
+    }
+
+    private static UnitReservation settle(Reservation reservation) throws OperationError {
+        UnitReservation unit = (UnitReservation) reservation;
+        if (!unit.settled.compareAndSet(false, true)) {
+            throw new OperationError("Reservation for " + unit.getFlatType() + " in " + unit.getProjectName() + " was already settled.");
+        }
+        return unit;
+    }
+
+    // Counts are always compared with the stored project, which a committed booking replaces, not with the caller's copy
+    private Inventory inventoryFor(Project project) {
+        String name = project.getProjectName();
+        Project stored = _projectRepo.findByName(name).orElse(project);
+        Inventory inventory = _inventories.computeIfAbsent(name, key -> new Inventory(stored));
+        if (!inventory.matches(stored)) resync(inventory, name, project);
+        return inventory;
+    }
+
+    /**
+     * Picks up unit counts changed outside the inventory, e.g. by a manager editing the project. Holds the
+     * project repository's monitor, like a committing unit of work, so a booking whose count is being applied
+     * or rolled back is never mistaken for such an edit.
+     */
+    private void resync(Inventory inventory, String name, Project fallback) {
+        synchronized (_projectRepo) {
+            Project stored = _projectRepo.findByName(name).orElse(fallback);
+            for (FlatType flatType : FlatType.values()) {
+                int index = flatType.ordinal();
+                int delta = savedUnits(stored, flatType) - inventory.committed.get(index);
+                if (delta != 0) {
+                    inventory.committed.addAndGet(index, delta);
+                    inventory.available.addAndGet(index, delta);
+                }
+            }
+        }
+    }
+
+    private static int savedUnits(Project project, FlatType flatType) {
+        return project.getFlatDetails(flatType)[0];
+    }
+
+    private static final class Inventory {
+        // Both indexed by FlatType ordinal: units saved on the project, and those minus outstanding reservations
+        final AtomicIntegerArray committed;
+        final AtomicIntegerArray available;
+
+        Inventory(Project project) {
+            FlatType[] types = FlatType.values();
+            this.committed = new AtomicIntegerArray(types.length);
+            this.available = new AtomicIntegerArray(types.length);
+            for (FlatType flatType : types) {
+                int units = savedUnits(project, flatType);
+                committed.set(flatType.ordinal(), units);
+                available.set(flatType.ordinal(), units);
+            }
+        }
+
+        boolean matches(Project project) {
+            for (FlatType flatType : FlatType.values()) {
+                if (savedUnits(project, flatType) != committed.get(flatType.ordinal())) return false;
+            }
+            return true;
+        }
+    }
+
+    private static final class UnitReservation implements Reservation {
+        final Inventory inventory;
+        final String projectName;
+        final FlatType flatType;
+        final AtomicBoolean settled = new AtomicBoolean();
+
+        UnitReservation(Inventory inventory, String projectName, FlatType flatType) {
+            this.inventory = inventory;
+            this.projectName = projectName;
+            this.flatType = flatType;
+        }
+
+        @Override
+        public String getProjectName() {
+            return projectName;
+        }
+
+        @Override
+        public FlatType getFlatType() {
+            return flatType;
+        }
+    }
+}
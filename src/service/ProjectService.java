@@ -3,6 +3,7 @@ package service;
 import common.UserRole;
 import common.FlatType;
 import common.RegistrationStatus;
+import exception.DataSaveError;
 import exception.OperationError;
 import exception.IntegrityError;
 import model.Project;
@@ -12,9 +13,11 @@ import model.Application;
 import interfaces.IProjectRepository;
 import interfaces.IRegistrationRepository;
 import interfaces.IApplicationRepository;
+import repository.TransactionManager;
+import repository.UnitOfWork;
 import service.interfaces.IProjectService;
+import util.DayClock;
 import util.InputUtil;
-import util.DateUtil;
 
 import java.util.*;
 
@@ -22,11 +25,32 @@ public class ProjectService implements IProjectService {
 
     private final IProjectRepository _projectRepo;
     private final IRegistrationRepository _regRepo;
+    private final TransactionManager _transactions;
+
+    // Applicant segments with their own list of viewable projects
+    private enum Segment { SINGLE_35, MARRIED_21, INELIGIBLE }
+
+    // Sorted viewable-project lists per segment, valid for one project repository version and one day
+    private static final class SegmentCache {
+        final long version;
+        final int day;
+        final List<Project>[] lists;
+
+        SegmentCache(long version, int day, List<Project>[] lists) {
+            this.version = version;
+            this.day = day;
+            this.lists = lists;
+        }
+    }
+
+    private volatile SegmentCache _segmentCache;
 
     // Constructor
-    public ProjectService(IProjectRepository projectRepository, IRegistrationRepository registrationRepository) {
+    public ProjectService(IProjectRepository projectRepository, IRegistrationRepository registrationRepository,
+                          TransactionManager transactionManager) {
         this._projectRepo = projectRepository;
         this._regRepo = registrationRepository;  // Needed for officer overlap checks
+        this._transactions = transactionManager;
     }
 
     @Override
@@ -36,9 +60,8 @@ public class ProjectService implements IProjectService {
 
     @Override
     public List<Project> getAllProjects() {
-        List<Project> projects = _projectRepo.getAll();
-        projects.sort(Comparator.comparing(Project::getProjectName)); // Sorting by project name
-        return projects;
+        // The repository keeps a shared read-only view sorted by project name
+        return _projectRepo.getAll();
     }
 
     @Override
@@ -50,50 +73,77 @@ public class ProjectService implements IProjectService {
                 projects.add(project);
             }
         }
-        projects.sort(Comparator.comparing(Project::getProjectName));
-        return projects;
+        return projects; // Already in name order
     }
 
     @Override
     public Set<String> getHandledProjectNamesForOfficer(String officerNric) {
         if (!InputUtil.validateNric(officerNric)) return Collections.emptySet();
-        Set<String> handledProjects = new HashSet<>();
-        for (Project project : getAllProjects()) {
-            if (project.getOfficerNrics().contains(officerNric)) {
-                handledProjects.add(project.getProjectName());
-            }
-        }
-        return handledProjects;
+        return _projectRepo.findProjectNamesByOfficer(officerNric);
     }
 
     @Override
     public List<Project> getViewableProjectsForApplicant(Applicant applicant, Application currentApplication) {
-        List<Project> viewable = new ArrayList<>();
-        String appProjName = currentApplication != null ? currentApplication.getProjectName() : null;
-        boolean isSingle = applicant.getMaritalStatus().equals("Single");
-        boolean isMarried = applicant.getMaritalStatus().equals("Married");
+        List<Project> viewable = segmentLists()[segmentOf(applicant).ordinal()];
+        if (currentApplication == null) return viewable;
 
-        for (Project project : getAllProjects()) {
-            if (project.getProjectName().equals(appProjName)) {
-                viewable.add(project);
-                continue;
-            }
-            if (!project.isCurrentlyVisibleAndActive()) continue;
+        // The applied-for project is always shown, even when it is hidden, closed or no longer matches the segment
+        String appProjName = currentApplication.getProjectName();
+        int index = indexOfName(viewable, appProjName);
+        if (index >= 0) return viewable;
+        Optional<Project> applied = _projectRepo.findByName(appProjName);
+        if (applied.isEmpty()) return viewable;
+        List<Project> merged = new ArrayList<>(viewable.size() + 1);
+        merged.addAll(viewable);
+        merged.add(-index - 1, applied.get());
+        return Collections.unmodifiableList(merged);
+    }
 
-            int units2 = project.getFlatDetails(FlatType.TWO_ROOM)[];
-            int units3 = project.getFlatDetails(FlatType.THREE_ROOM).getLeft();
-            boolean eligible = false;
+    // Which projects an applicant may view depends only on this, apart from the project they applied for
+    private static Segment segmentOf(Applicant applicant) {
+        if (applicant.getMaritalStatus().equals("Single") && applicant.getAge() >= 35) return Segment.SINGLE_35;
+        if (applicant.getMaritalStatus().equals("Married") && applicant.getAge() >= 21) return Segment.MARRIED_21;
+        return Segment.INELIGIBLE;
+    }
 
-            if (isSingle && applicant.getAge() >= 35 && units2 > 0) eligible = true;
-            else if (isMarried && applicant.getAge() >= 21 && (units2 > 0 || units3 > 0)) eligible = true;
+    // Rebuilt in one pass over the projects when a project changes or the day rolls over; racing rebuilds give equal lists
+    private List<Project>[] segmentLists() {
+        SegmentCache cache = _segmentCache;
+        int today = DayClock.current().today();
+        long version = _projectRepo.getVersion();
+        if (cache != null && cache.version == version && cache.day == today) return cache.lists;
 
-            if (eligible) viewable.add(project);
+        @SuppressWarnings("unchecked")
+        List<Project>[] lists = new List[Segment.values().length];
+        for (Segment segment : Segment.values()) {
+            lists[segment.ordinal()] = new ArrayList<>();
         }
+        for (Project project : getAllProjects()) {
+            if (!project.isVisibility() || !project.isActiveOn(today)) continue;
+            int units2 = project.getFlatDetails(FlatType.TWO_ROOM)[0];
+            int units3 = project.getFlatDetails(FlatType.THREE_ROOM)[0];
+            if (units2 > 0) lists[Segment.SINGLE_35.ordinal()].add(project);
+            if (units2 > 0 || units3 > 0) lists[Segment.MARRIED_21.ordinal()].add(project);
+        }
+        for (Segment segment : Segment.values()) {
+            lists[segment.ordinal()] = Collections.unmodifiableList(lists[segment.ordinal()]);
+        }
+        _segmentCache = new SegmentCache(version, today, lists);
+        return lists;
+    }
 
-        Set<String> uniqueViewable = new HashSet<>();
-        viewable.removeIf(project -> !uniqueViewable.add(project.getProjectName()));
-        viewable.sort(Comparator.comparing(Project::getProjectName));
-        return viewable;
+    // Binary search by name in a list in project name order; returns -(insertion point) - 1 if absent
+    private static int indexOfName(List<Project> projects, String name) {
+        int low = 0;
+        int high = projects.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = projects.get(mid).getProjectName().compareTo(name);
+            if (cmp < 0) low = mid + 1;
+            else if (cmp > 0) high = mid - 1;
+            else return mid;
+        }
+        return -(low + 1);
     }
 
     @Override
@@ -105,7 +155,7 @@ public class ProjectService implements IProjectService {
         if (flatTypeStr != null) {
             try {
                 FlatType flatType = FlatType.fromValue(flatTypeStr);
-                filtered.removeIf(project -> project.getFlatDetails(flatType).getLeft() <= 0);
+                filtered.removeIf(project -> project.getFlatDetails(flatType)[0] <= 0);
             } catch (IllegalArgumentException e) {
                 System.out.println("Warning: Invalid flat type filter '" + flatTypeStr + "'. Ignoring.");
             }
@@ -114,16 +164,17 @@ public class ProjectService implements IProjectService {
     }
 
     private void checkManagerProjectOverlap(String managerNric, Date od, Date cd, String excludeName) {
-        for (Project project : getProjectsByManager(managerNric)) {
+        for (Project project : _projectRepo.findOverlappingByManager(managerNric, od, cd)) {
             if (excludeName != null && project.getProjectName().equals(excludeName)) continue;
-            if (project.getOpeningDate() != null && project.getClosingDate() != null) {
-                if (DateUtil.datesOverlap(od, cd, project.getOpeningDate(), project.getClosingDate())) {
-                    throw new OperationError("Manager handles overlapping project '" + project.getProjectName() + "'");
-                }
-            }
+            throw new OperationError("Manager handles overlapping project '" + project.getProjectName() + "'");
         }
     }
 
+    @Override
+    public List<Project> findOverlappingProjectsForOfficer(String officerNric, Date od, Date cd) {
+        return _projectRepo.findOverlappingByOfficer(officerNric, od, cd);
+    }
+
     @Override
     public Project createProject(HDBManager manager, String name, String neighborhood, int n1, int p1, int n2, int p2, Date od, Date cd, int slot) {
         if (findProjectByName(name).isPresent()) {
@@ -159,15 +210,19 @@ public class ProjectService implements IProjectService {
             checkManagerProjectOverlap(manager.getNric(), newOd, newCd, originalName);
         }
 
-        try {
-            project.updateDetails(updates);
-            if (!project.getProjectName().equals(originalName)) {
-                _projectRepo.delete(originalName);
-                _projectRepo.add(project);
+        // The stored instance is never edited in place: its name is its key. A rename deletes the old key and
+        // adds an edited copy in one commit, so neither is saved alone; other edits apply to the stored state at commit.
+        try (UnitOfWork uow = _transactions.begin()) {
+            if (!newName.equals(originalName)) {
+                Project renamed = project.copy();
+                renamed.updateDetails(updates);
+                uow.delete(_projectRepo, originalName);
+                uow.add(_projectRepo, renamed);
             } else {
-                _projectRepo.update(project);
+                uow.modify(_projectRepo, project, stored -> stored.updateDetails(updates));
             }
-        } catch (Exception e) {
+            uow.commit();
+        } catch (IntegrityError | DataSaveError | IllegalArgumentException e) {
             throw new OperationError("Failed to update project: " + e.getMessage());
         }
     }
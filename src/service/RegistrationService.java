@@ -3,15 +3,18 @@ package service;
 import common.enums.RegistrationStatus;
 import exception.OperationError;
 import exception.IntegrityError;
+import exception.DataSaveError;
 import model.HDBManager;
 import model.HDBOfficer;
 import model.Project;
 import model.Registration;
 import repository.interfaces.IRegistrationRepository;
 import repository.interfaces.IApplicationRepository;
+import interfaces.IProjectRepository;
+import repository.TransactionManager;
+import repository.UnitOfWork;
 import service.interfaces.IRegistrationService;
 import service.interfaces.IProjectService;
-import utils.DateUtil;
 import java.util.*;
 
 public class RegistrationService implements IRegistrationService {
@@ -19,13 +22,19 @@ public class RegistrationService implements IRegistrationService {
     private final IRegistrationRepository _regRepo;
     private final IProjectService _projectService;
     private final IApplicationRepository _appRepo;
+    private final IProjectRepository _projectRepo;
+    private final TransactionManager _transactions;
 
     public RegistrationService(IRegistrationRepository registrationRepository, 
                                IProjectService projectService, 
-                               IApplicationRepository applicationRepository) {
+                               IApplicationRepository applicationRepository,
+                               IProjectRepository projectRepository,
+                               TransactionManager transactionManager) {
         this._regRepo = registrationRepository;
         this._projectService = projectService;
         this._appRepo = applicationRepository;
+        this._projectRepo = projectRepository;
+        this._transactions = transactionManager;
     }
 
     @Override
@@ -43,6 +52,11 @@ public class RegistrationService implements IRegistrationService {
         return _regRepo.findByProject(projectName, statusFilter);
     }
 
+    @Override
+    public List<Registration> getRegistrationsForProjects(Collection<String> projectNames, RegistrationStatus statusFilter) {
+        return _regRepo.findByProjects(projectNames, statusFilter);
+    }
+
     private void checkOfficerRegistrationEligibility(HDBOfficer officer, Project project) {
         if (findRegistration(officer.getNric(), project.getProjectName()).isPresent()) {
             throw new OperationError("Already registered for project '" + project.getProjectName() + "'.");
@@ -62,14 +76,10 @@ public class RegistrationService implements IRegistrationService {
             throw new OperationError("Target project has invalid dates.");
         }
 
-        for (Registration reg : getRegistrationsByOfficer(officer.getNric())) {
-            if (reg.getStatus() == RegistrationStatus.APPROVED) {
-                Project otherProject = _projectService.findProjectByName(reg.getProjectName());
-                if (otherProject != null && otherProject.getOpeningDate() != null && otherProject.getClosingDate() != null) {
-                    if (DateUtil.datesOverlap(targetOd, targetCd, otherProject.getOpeningDate(), otherProject.getClosingDate())) {
-                        throw new OperationError("Overlaps with approved registration for '" + otherProject.getProjectName() + "'.");
-                    }
-                }
+        // Approved officers are on the project's roster, so the roster's window index answers this directly
+        for (Project otherProject : _projectService.findOverlappingProjectsForOfficer(officer.getNric(), targetOd, targetCd)) {
+            if (!otherProject.getProjectName().equals(project.getProjectName())) {
+                throw new OperationError("Overlaps with approved registration for '" + otherProject.getProjectName() + "'.");
             }
         }
     }
@@ -114,41 +124,19 @@ public class RegistrationService implements IRegistrationService {
             throw new OperationError("Project has invalid dates.");
         }
 
-        for (Registration otherReg : getRegistrationsByOfficer(registration.getOfficerNric())) {
-            if (!otherReg.equals(registration) && otherReg.getStatus() == RegistrationStatus.APPROVED) {
-                Project otherProject = _projectService.findProjectByName(otherReg.getProjectName());
-                if (otherProject != null && otherProject.getOpeningDate() != null && otherProject.getClosingDate() != null) {
-                    if (DateUtil.datesOverlap(targetOd, targetCd, otherProject.getOpeningDate(), otherProject.getClosingDate())) {
-                        throw new OperationError("Officer approved for overlapping project '" + otherProject.getProjectName() + "'.");
-                    }
-                }
+        for (Project otherProject : _projectService.findOverlappingProjectsForOfficer(registration.getOfficerNric(), targetOd, targetCd)) {
+            if (!otherProject.getProjectName().equals(project.getProjectName())) {
+                throw new OperationError("Officer approved for overlapping project '" + otherProject.getProjectName() + "'.");
             }
         }
 
-        boolean officerAdded = false;
-        try {
-            _projectService.addOfficerToProject(project, registration.getOfficerNric());
-            officerAdded = true;
-
-            registration.setStatus(RegistrationStatus.APPROVED);
-            _regRepo.update(registration);
-        } catch (OperationError | IntegrityError e) {
-            registration.setStatus(RegistrationStatus.PENDING);
-            try {
-                _regRepo.update(registration);
-            } catch (Exception rb_e) {
-                System.out.println("Warning: Failed rollback reg status: " + rb_e.getMessage());
-            }
-
-            if (officerAdded) {
-                try {
-                    _projectService.removeOfficerFromProject(project, registration.getOfficerNric());
-                } catch (Exception rb_e) {
-                    System.out.println("CRITICAL: Failed rollback officer from project: " + rb_e.getMessage());
-                }
-            }
-
-            throw new OperationError("Approval failed: " + e.getMessage() + ". Rollback attempted.");
+        // Assign the officer and approve the registration together; a failure leaves both unchanged
+        try (UnitOfWork uow = _transactions.begin()) {
+            uow.modify(_projectRepo, project, p -> p.addOfficer(registration.getOfficerNric()));
+            uow.modify(_regRepo, registration, r -> r.setStatus(RegistrationStatus.APPROVED));
+            uow.commit();
+        } catch (OperationError | IntegrityError | DataSaveError e) {
+            throw new OperationError("Approval failed: " + e.getMessage());
         }
     }
 
@@ -1,12 +1,15 @@
 package service.interfaces;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Predicate;
 
 import model.Application;
 import model.Applicant;
 import model.HDBOfficer;
 import model.HDBManager;
 import model.Project;
+import common.ApplicationStatus;
+import common.BatchItemResult;
 import common.FlatType;
 import common.Tuple;
 
@@ -32,6 +35,11 @@ public interface IApplicationService {
      */
     List<Application> getApplicationsForProject(String projectName);
 
+    /**
+     * Get the applications for a project with a given status and withdrawal flag (null matches any).
+     */
+    List<Application> getApplicationsForProject(String projectName, ApplicationStatus statusFilter, Boolean withdrawalFilter);
+
     /**
      * Get all applications in the system.
      */
@@ -57,6 +65,17 @@ public interface IApplicationService {
      */
     void managerRejectApplication(HDBManager manager, Application application);
 
+    /**
+     * Manager approve or reject many applications with a single save.
+     * Approvals are capped per project and flat type at the units not yet taken by other successful applications.
+     */
+    List<BatchItemResult<Application>> managerBulkProcessApplications(HDBManager manager, List<Application> applications, boolean approve);
+
+    /**
+     * Manager approve or reject every pending application in their projects that matches the filter.
+     */
+    List<BatchItemResult<Application>> managerBulkProcessApplications(HDBManager manager, Predicate<Application> filter, boolean approve);
+
     /**
      * Manager approve withdrawal request.
      */
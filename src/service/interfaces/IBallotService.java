@@ -0,0 +1,35 @@
+package service.interfaces;
+
+import java.util.Collection;
+import java.util.List;
+
+import common.BallotOutcome;
+import exception.OperationError;
+import model.HDBManager;
+import model.Project;
+
+public interface IBallotService {
+
+    /**
+     * Settles every pending application in the given projects by ballot. For each project and flat type,
+     * the pending applications without a withdrawal request are shuffled and as many as there are units
+     * not yet promised to a successful application become SUCCESSFUL; the rest become UNSUCCESSFUL.
+     * The same seed and the same applications always give the same draw.
+     * 
+     * @param projects The projects to ballot.
+     * @param seed The seed of the draw.
+     * @return One outcome per project and flat type that had entrants.
+     * @throws OperationError If the results cannot be saved; no application is changed in that case.
+     */
+    List<BallotOutcome> runBallot(Collection<Project> projects, long seed) throws OperationError;
+
+    /**
+     * Runs the ballot for every project the manager manages.
+     * 
+     * @param manager The manager.
+     * @param seed The seed of the draw.
+     * @return One outcome per project and flat type that had entrants.
+     * @throws OperationError If the results cannot be saved; no application is changed in that case.
+     */
+    List<BallotOutcome> runBallot(HDBManager manager, long seed) throws OperationError;
+}
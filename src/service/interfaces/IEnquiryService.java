@@ -1,5 +1,6 @@
 package service.interfaces;
 
+import java.util.Collection;
 import java.util.List;
 import model.Enquiry;
 import model.Applicant;
@@ -32,6 +33,22 @@ public interface IEnquiryService {
      */
     List<Enquiry> getEnquiriesForProject(String projectName);
 
+    /**
+     * Gets all enquiries for any of the given projects, in ID order.
+     * 
+     * @param projectNames The names of the projects.
+     * @return A list of Enquiries related to the projects.
+     */
+    List<Enquiry> getEnquiriesForProjects(Collection<String> projectNames);
+
+    /**
+     * Gets the enquiries for any of the given projects that still await a reply, in ID order.
+     * 
+     * @param projectNames The names of the projects.
+     * @return A list of unreplied Enquiries related to the projects.
+     */
+    List<Enquiry> getUnrepliedEnquiriesForProjects(Collection<String> projectNames);
+
     /**
      * Gets all enquiries in the system.
      * 
@@ -0,0 +1,91 @@
+package service.interfaces;
+
+import java.util.Optional;
+import common.FlatType;
+import exception.OperationError;
+import model.Project;
+import repository.UnitOfWork;
+
+public interface IFlatInventoryService {
+
+    /**
+     * A unit held back for a booking in progress. It must be either committed or released exactly once.
+     */
+    interface Reservation {
+        String getProjectName();
+
+        FlatType getFlatType();
+    }
+
+    /**
+     * Gets the units of a flat type that are neither booked nor currently reserved.
+     * 
+     * @param project The project.
+     * @param flatType The flat type.
+     * @return The number of units still available.
+     */
+    int getAvailableUnits(Project project, FlatType flatType);
+
+    /**
+     * Gets the units of a flat type saved on the project, including those currently reserved.
+     * 
+     * @param project The project.
+     * @param flatType The flat type.
+     * @return The number of units not yet booked.
+     */
+    int getCommittedUnits(Project project, FlatType flatType);
+
+    /**
+     * Holds back one unit of a flat type without persisting anything.
+     * 
+     * @param project The project to reserve a unit in.
+     * @param flatType The flat type to reserve.
+     * @return The reservation, or empty if no units are left.
+     */
+    Optional<Reservation> reserve(Project project, FlatType flatType);
+
+    /**
+     * Turns a reservation into a booked unit and saves the project's new unit count.
+     * 
+     * @param reservation The reservation to commit.
+     * @throws OperationError If the reservation was already settled or the project cannot be saved,
+     *                        in which case the unit is returned to the available pool.
+     */
+    void commit(Reservation reservation) throws OperationError;
+
+    /**
+     * Turns a reservation into a booked unit as part of a unit of work; the project is saved when the
+     * unit of work commits, and the unit is returned to the available pool if it rolls back.
+     * 
+     * @param reservation The reservation to commit.
+     * @param unitOfWork The unit of work that saves the project.
+     * @throws OperationError If the reservation was already settled.
+     */
+    void commit(Reservation reservation, UnitOfWork unitOfWork) throws OperationError;
+
+    /**
+     * Returns a reserved unit to the available pool. Releasing an already settled reservation has no effect.
+     * 
+     * @param reservation The reservation to release.
+     */
+    void release(Reservation reservation);
+
+    /**
+     * Returns a previously booked unit, e.g. after a booked application is withdrawn, and saves the project.
+     * 
+     * @param project The project the unit belongs to.
+     * @param flatType The flat type of the unit.
+     * @throws OperationError If the project cannot be saved.
+     */
+    void returnUnit(Project project, FlatType flatType) throws OperationError;
+
+    /**
+     * Returns a previously booked unit as part of a unit of work; the project is saved, and the unit
+     * offered again, when the unit of work commits.
+     * 
+     * @param project The project the unit belongs to.
+     * @param flatType The flat type of the unit.
+     * @param unitOfWork The unit of work that saves the project.
+     */
+    void returnUnit(Project project, FlatType flatType, UnitOfWork unitOfWork);
+}
@@ -39,10 +39,20 @@ public interface IProjectService {
      * Gets all project names handled by an officer.
      * 
      * @param officerNric The NRIC of the officer.
-     * @return A set of project names handled by the officer.
+     * @return A read-only set of project names handled by the officer.
      */
     Set<String> getHandledProjectNamesForOfficer(String officerNric);
 
+    /**
+     * Finds the projects an officer is assigned to whose application period overlaps the given dates.
+     *
+     * @param officerNric The NRIC of the officer.
+     * @param od The opening date of the period to check.
+     * @param cd The closing date of the period to check.
+     * @return A list of overlapping projects.
+     */
+    List<Project> findOverlappingProjectsForOfficer(String officerNric, Date od, Date cd);
+
     /**
      * Gets the list of viewable projects for an applicant.
      * 
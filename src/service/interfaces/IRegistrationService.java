@@ -1,5 +1,6 @@
 package service.interfaces;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import model.Registration;
@@ -36,6 +37,15 @@ public interface IRegistrationService {
      */
     List<Registration> getRegistrationsForProject(String projectName, Optional<RegistrationStatus> statusFilter);
 
+    /**
+     * Gets all registrations for any of the given projects with an optional status filter, in a single lookup.
+     * 
+     * @param projectNames The names of the projects.
+     * @param statusFilter Filter for registration status, or null for any status.
+     * @return A list of registrations for the projects.
+     */
+    List<Registration> getRegistrationsForProjects(Collection<String> projectNames, RegistrationStatus statusFilter);
+
     /**
      * Registers an officer for a project.
      * 
@@ -0,0 +1,79 @@
+package storage;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Replaces files by writing a sibling temp file and renaming it over the target,
+ * so a crash never leaves a half-written file behind. Shared by the storage adapters.
+ */
+final class AtomicFiles {
+
+    @FunctionalInterface
+    interface Content {
+        void writeTo(FileChannel channel) throws IOException;
+    }
+
+    private static final Map<Path, GroupCommit> DIRECTORY_COMMITS = new ConcurrentHashMap<>();
+
+    private AtomicFiles() {
+    }
+
+    /**
+     * @param target The file to replace.
+     * @param durable True to fsync the new contents and the directory entry before returning.
+     * @param content Writes the complete new contents to the channel.
+     */
+    static void replace(Path target, boolean durable, Content content) throws IOException {
+        Path path = target.toAbsolutePath();
+        Path directory = path.getParent();
+        Path temp = null;
+        try {
+            Files.createDirectories(directory);
+            temp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                content.writeTo(channel);
+                if (durable) channel.force(true);
+            }
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            temp = null;
+            if (durable) directoryCommit(directory).commit();
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException e) {
+                    System.out.println("Warning: Could not remove temporary file " + temp + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The file's modification time in milliseconds, or -1 if it does not exist.
+     */
+    static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    // Renames in the same directory share one directory fsync
+    private static GroupCommit directoryCommit(Path directory) {
+        return DIRECTORY_COMMITS.computeIfAbsent(directory, dir -> new GroupCommit(() -> {
+            try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+                channel.force(true);
+            } catch (IOException e) {
+                // Some platforms cannot open directories for syncing; the rename itself is still atomic
+            }
+        }));
+    }
+}
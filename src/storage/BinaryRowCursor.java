@@ -0,0 +1,95 @@
+package storage;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import util.DateUtil;
+
+/**
+ * {@link RowCursor} over the typed values decoded from a binary snapshot row.
+ * Values are held in parallel primitive arrays so that decoding a row allocates nothing but its strings.
+ */
+final class BinaryRowCursor implements RowCursor {
+
+    private final List<String> columns;
+    private final byte[] tags;
+    private final long[] numbers;
+    private final String[] strings;
+
+    BinaryRowCursor(List<String> columns) {
+        this.columns = columns;
+        this.tags = new byte[columns.size()];
+        this.numbers = new long[columns.size()];
+        this.strings = new String[columns.size()];
+    }
+
+    void set(int column, byte tag, long number, String string) {
+        tags[column] = tag;
+        numbers[column] = number;
+        strings[column] = string;
+    }
+
+    // Enum columns only hold an ordinal, so their text form is the ordinal
+    @Override
+    public String getString(int column) {
+        switch (tags[column]) {
+            case BinarySnapshotStorageAdapter.STRING: return strings[column];
+            case BinarySnapshotStorageAdapter.INT:
+            case BinarySnapshotStorageAdapter.ENUM: return Long.toString(numbers[column]);
+            case BinarySnapshotStorageAdapter.TRUE: return "true";
+            case BinarySnapshotStorageAdapter.FALSE: return "false";
+            case BinarySnapshotStorageAdapter.DATE: return DateUtil.formatEpochDay(numbers[column]);
+            default: return "";
+        }
+    }
+
+    @Override
+    public int getInt(int column) {
+        byte tag = tags[column];
+        if (tag == BinarySnapshotStorageAdapter.INT || tag == BinarySnapshotStorageAdapter.ENUM) return (int) numbers[column];
+        return Integer.parseInt(getString(column).trim());
+    }
+
+    @Override
+    public boolean getBoolean(int column) {
+        byte tag = tags[column];
+        if (tag == BinarySnapshotStorageAdapter.TRUE) return true;
+        if (tag == BinarySnapshotStorageAdapter.FALSE) return false;
+        return Boolean.parseBoolean(getString(column).trim());
+    }
+
+    @Override
+    public LocalDate getDate(int column) {
+        if (tags[column] == BinarySnapshotStorageAdapter.DATE) return LocalDate.ofEpochDay(numbers[column]);
+        return DateUtil.parseDate(getString(column).trim());
+    }
+
+    @Override
+    public long getEpochDay(int column) {
+        if (tags[column] == BinarySnapshotStorageAdapter.DATE) return numbers[column];
+        return DateUtil.parseEpochDay(getString(column).trim());
+    }
+
+    @Override
+    public <E extends Enum<E>> E getEnum(int column, Class<E> type) {
+        if (tags[column] == BinarySnapshotStorageAdapter.ENUM) {
+            E[] constants = type.getEnumConstants();
+            int ordinal = (int) numbers[column];
+            if (ordinal < 0 || ordinal >= constants.length) {
+                throw new IllegalArgumentException("No " + type.getSimpleName() + " with ordinal " + ordinal);
+            }
+            return constants[ordinal];
+        }
+        return Enum.valueOf(type, getString(column).trim());
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("{");
+        for (int i = 0; i < tags.length; i++) {
+            if (i > 0) text.append(", ");
+            text.append(columns.get(i)).append('=').append(getString(i));
+        }
+        return text.append('}').toString();
+    }
+}
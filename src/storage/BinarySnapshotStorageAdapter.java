@@ -0,0 +1,370 @@
+package storage;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+import exception.DataLoadError;
+import exception.DataSaveError;
+
+/**
+ * Stores each source as a compact binary snapshot next to its CSV file ({@code <sourceId>.snapshot}).
+ *
+ * Layout: magic, schema version, fingerprint of the header list and column count, then one tagged
+ * value per column for every row (length-prefixed UTF-8 strings, zigzag varint integers, epoch-day
+ * dates, enum ordinals), an end marker and a CRC32 of everything before it.
+ * A snapshot whose version or fingerprint does not match the caller's headers is rejected, so
+ * repositories fall back to CSV after a schema change instead of misreading columns.
+ */
+public class BinarySnapshotStorageAdapter implements IStorageAdapter {
+
+    public static final String SUFFIX = ".snapshot";
+
+    private static final int MAGIC = 0x42544F53; // "BTOS"
+    private static final int SCHEMA_VERSION = 1;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // Row markers
+    private static final byte ROW = 1;
+    private static final byte END = 0;
+
+    // Value tags
+    static final byte NULL = 0;
+    static final byte STRING = 1;
+    static final byte INT = 2;
+    static final byte FALSE = 3;
+    static final byte TRUE = 4;
+    static final byte DATE = 5;
+    static final byte ENUM = 6;
+
+    private final boolean durable;
+
+    public BinarySnapshotStorageAdapter(boolean durable) {
+        this.durable = durable;
+    }
+
+    public BinarySnapshotStorageAdapter() {
+        this(false);
+    }
+
+    public static Path snapshotPath(String sourceId) {
+        return Paths.get(sourceId + SUFFIX);
+    }
+
+    @Override
+    public void readRows(String sourceId, List<String> expectedHeaders, Consumer<RowCursor> visitor) throws DataLoadError, FileNotFoundException {
+        Path path = snapshotPath(sourceId);
+        if (!Files.exists(path)) {
+            throw new FileNotFoundException("No snapshot for " + sourceId);
+        }
+
+        try (Input in = new Input(FileChannel.open(path, StandardOpenOption.READ))) {
+            if (in.readFixedInt() != MAGIC) {
+                throw new DataLoadError("Not a snapshot file: " + path);
+            }
+            int version = in.readVarInt();
+            long fingerprint = in.readFixedLong();
+            int columns = in.readVarInt();
+            if (version != SCHEMA_VERSION || fingerprint != fingerprint(expectedHeaders) || columns != expectedHeaders.size()) {
+                throw new DataLoadError("Snapshot " + path + " was written for a different schema");
+            }
+
+            BinaryRowCursor cursor = new BinaryRowCursor(expectedHeaders);
+            byte marker;
+            while ((marker = in.readByte()) == ROW) {
+                for (int column = 0; column < columns; column++) {
+                    byte tag = in.readByte();
+                    switch (tag) {
+                        case NULL:
+                        case FALSE:
+                        case TRUE:
+                            cursor.set(column, tag, 0, null);
+                            break;
+                        case STRING:
+                            cursor.set(column, tag, 0, in.readString());
+                            break;
+                        case INT:
+                        case DATE:
+                            cursor.set(column, tag, in.readSignedVarLong(), null);
+                            break;
+                        case ENUM:
+                            cursor.set(column, tag, in.readVarInt(), null);
+                            break;
+                        default:
+                            throw new DataLoadError("Corrupt snapshot " + path + ": unknown value tag " + tag);
+                    }
+                }
+                visitor.accept(cursor);
+            }
+            if (marker != END) {
+                throw new DataLoadError("Corrupt snapshot " + path + ": unexpected row marker " + marker);
+            }
+            long expected = in.checksum();
+            if ((in.readFixedInt() & 0xFFFFFFFFL) != expected) {
+                throw new DataLoadError("Corrupt snapshot " + path + ": checksum mismatch");
+            }
+        } catch (IOException e) {
+            throw new DataLoadError("Failed to read snapshot " + path, e);
+        }
+    }
+
+    @Override
+    public <T> void writeRows(String sourceId, List<String> headers, Collection<? extends T> items, RowEncoder<? super T> encoder) throws DataSaveError {
+        try {
+            AtomicFiles.replace(snapshotPath(sourceId), durable, channel -> {
+                Output out = new Output(channel);
+                out.writeFixedInt(MAGIC);
+                out.writeVarInt(SCHEMA_VERSION);
+                out.writeFixedLong(fingerprint(headers));
+                out.writeVarInt(headers.size());
+
+                RowWriter row = new RowWriter(headers.size());
+                for (T item : items) {
+                    row.clear();
+                    encoder.encode(item, row);
+                    out.writeByte(ROW);
+                    for (int column = 0; column < headers.size(); column++) {
+                        if (row.isEpochDay(column)) {
+                            out.writeByte(DATE);
+                            out.writeSignedVarLong(row.getEpochDay(column));
+                        } else {
+                            writeValue(out, row.getValue(column));
+                        }
+                    }
+                }
+                out.writeByte(END);
+                out.writeFixedInt((int) out.checksum());
+                out.flush();
+            });
+        } catch (IOException e) {
+            throw new DataSaveError("Failed to write snapshot for " + sourceId + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isDurable() {
+        return durable;
+    }
+
+    @Override
+    public long lastModified(String sourceId) {
+        return AtomicFiles.lastModified(snapshotPath(sourceId));
+    }
+
+    private static void writeValue(Output out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String) {
+            out.writeByte(STRING);
+            out.writeString((String) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(INT);
+            out.writeSignedVarLong((Integer) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte((Boolean) value ? TRUE : FALSE);
+        } else if (value instanceof LocalDate) {
+            out.writeByte(DATE);
+            out.writeSignedVarLong(((LocalDate) value).toEpochDay());
+        } else if (value instanceof Enum) {
+            out.writeByte(ENUM);
+            out.writeVarInt(((Enum<?>) value).ordinal());
+        } else {
+            out.writeByte(STRING);
+            out.writeString(value.toString());
+        }
+    }
+
+    // 64-bit FNV-1a over the header names, in order
+    static long fingerprint(List<String> headers) {
+        long hash = 0xcbf29ce484222325L;
+        for (String header : headers) {
+            for (byte b : header.getBytes(StandardCharsets.UTF_8)) {
+                hash ^= (b & 0xFF);
+                hash *= 0x100000001b3L;
+            }
+            hash ^= 0xFF; // Separator, so ["ab","c"] and ["a","bc"] differ
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    // Buffered writer that checksums everything it writes
+    private static final class Output {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        private final CRC32 crc = new CRC32();
+        private int checksummedUpTo;
+
+        Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void writeByte(int value) throws IOException {
+            if (!buffer.hasRemaining()) drain();
+            buffer.put((byte) value);
+        }
+
+        void writeFixedInt(int value) throws IOException {
+            for (int shift = 24; shift >= 0; shift -= 8) writeByte(value >>> shift);
+        }
+
+        void writeFixedLong(long value) throws IOException {
+            for (int shift = 56; shift >= 0; shift -= 8) writeByte((int) (value >>> shift));
+        }
+
+        void writeVarInt(int value) throws IOException {
+            while ((value & ~0x7F) != 0) {
+                writeByte((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            writeByte(value);
+        }
+
+        void writeSignedVarLong(long value) throws IOException {
+            long zigzag = (value << 1) ^ (value >> 63);
+            while ((zigzag & ~0x7FL) != 0) {
+                writeByte((int) ((zigzag & 0x7F) | 0x80));
+                zigzag >>>= 7;
+            }
+            writeByte((int) zigzag);
+        }
+
+        void writeString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length);
+            int offset = 0;
+            while (offset < bytes.length) {
+                if (!buffer.hasRemaining()) drain();
+                int length = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.put(bytes, offset, length);
+                offset += length;
+            }
+        }
+
+        // Checksum of everything written so far
+        long checksum() {
+            crc.update(buffer.array(), checksummedUpTo, buffer.position() - checksummedUpTo);
+            checksummedUpTo = buffer.position();
+            return crc.getValue();
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+            checksummedUpTo = 0;
+        }
+
+        private void drain() throws IOException {
+            crc.update(buffer.array(), checksummedUpTo, buffer.position() - checksummedUpTo);
+            flush();
+        }
+    }
+
+    // Buffered reader that checksums everything it reads
+    private static final class Input implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        private final CRC32 crc = new CRC32();
+        private int checksummedUpTo;
+
+        Input(FileChannel channel) {
+            this.channel = channel;
+            buffer.flip();
+        }
+
+        byte readByte() throws IOException {
+            if (!buffer.hasRemaining()) fill();
+            return buffer.get();
+        }
+
+        int readFixedInt() throws IOException {
+            int value = 0;
+            for (int i = 0; i < 4; i++) value = (value << 8) | (readByte() & 0xFF);
+            return value;
+        }
+
+        long readFixedLong() throws IOException {
+            long value = 0;
+            for (int i = 0; i < 8; i++) value = (value << 8) | (readByte() & 0xFF);
+            return value;
+        }
+
+        int readVarInt() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                byte b = readByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return value;
+            }
+            throw new IOException("Malformed varint");
+        }
+
+        long readSignedVarLong() throws IOException {
+            long zigzag = 0;
+            for (int shift = 0; shift < 70; shift += 7) {
+                byte b = readByte();
+                zigzag |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+            throw new IOException("Malformed varint");
+        }
+
+        String readString() throws IOException {
+            int length = readVarInt();
+            if (length < 0) throw new IOException("Negative string length");
+            if (length <= buffer.remaining()) {
+                // Common case: decode straight out of the buffer
+                String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+                buffer.position(buffer.position() + length);
+                return value;
+            }
+            byte[] bytes = new byte[length];
+            int offset = 0;
+            while (offset < length) {
+                if (!buffer.hasRemaining()) fill();
+                int chunk = Math.min(buffer.remaining(), length - offset);
+                buffer.get(bytes, offset, chunk);
+                offset += chunk;
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        // Checksum of everything read so far
+        long checksum() {
+            crc.update(buffer.array(), checksummedUpTo, buffer.position() - checksummedUpTo);
+            checksummedUpTo = buffer.position();
+            return crc.getValue();
+        }
+
+        private void fill() throws IOException {
+            crc.update(buffer.array(), checksummedUpTo, buffer.position() - checksummedUpTo);
+            buffer.clear();
+            int read;
+            do {
+                read = channel.read(buffer);
+            } while (read == 0);
+            buffer.flip();
+            checksummedUpTo = 0;
+            if (read == -1) throw new IOException("Unexpected end of snapshot");
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
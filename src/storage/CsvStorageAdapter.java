@@ -1,5 +1,157 @@
 package storage;
 
-public class CsvStorageAdapter {
+import java.io.BufferedWriter;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
 
+import exception.DataLoadError;
+import exception.DataSaveError;
+
+public class CsvStorageAdapter implements IStorageAdapter {
+
+    // Files at least this large are memory-mapped rather than read through a buffer
+    private static final long MMAP_THRESHOLD = 8L * 1024 * 1024;
+
+    private final boolean durable;
+
+    // Writes are atomic either way; durable mode additionally fsyncs data files and their directory
+    public CsvStorageAdapter(boolean durable) {
+        this.durable = durable;
+    }
+
+    public CsvStorageAdapter() {
+        this(false);
+    }
+
+    @Override
+    public void readRows(String sourceId, List<String> expectedHeaders, Consumer<RowCursor> visitor) throws DataLoadError, FileNotFoundException {
+        Path path = Paths.get(sourceId);
+        if (!Files.exists(path)) {
+            // First run: create the file with just its header row
+            writeRows(sourceId, expectedHeaders, new ArrayList<>(), (item, row) -> { });
+            return;
+        }
+
+        try (CsvTokenizer tokenizer = new CsvTokenizer(FileChannel.open(path, StandardOpenOption.READ), MMAP_THRESHOLD)) {
+            List<String> actualHeaders = readHeaders(tokenizer);
+            if (actualHeaders.isEmpty()) return;
+            List<String> missing = new ArrayList<>(expectedHeaders);
+            missing.removeAll(actualHeaders);
+            if (!missing.isEmpty()) {
+                throw new DataLoadError("Missing headers " + missing + " in " + sourceId);
+            }
+
+            // Resolve header names once; every row is then read into the same field array and cursor
+            TextRowCursor cursor = new TextRowCursor(actualHeaders, expectedHeaders);
+            String[] fields = new String[actualHeaders.size()];
+            cursor.reset(fields);
+            int column = 0;
+            String value;
+            while ((value = tokenizer.nextField()) != null) {
+                if (column < fields.length) {
+                    fields[column] = value;
+                }
+                column++;
+                if (tokenizer.isEndOfRecord()) {
+                    // Skip blank lines
+                    if (column > 1 || !value.isEmpty()) {
+                        Arrays.fill(fields, Math.min(column, fields.length), fields.length, "");
+                        visitor.accept(cursor);
+                    }
+                    column = 0;
+                }
+            }
+        } catch (IOException e) {
+            throw new DataLoadError("Failed to read " + sourceId, e);
+        }
+    }
+
+    @Override
+    public <T> void writeRows(String sourceId, List<String> headers, Collection<? extends T> items, RowEncoder<? super T> encoder) throws DataSaveError {
+        try {
+            AtomicFiles.replace(Paths.get(sourceId), durable, channel -> {
+                Writer writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), 64 * 1024);
+                StringBuilder line = new StringBuilder(256);
+                appendRecord(line, headers);
+                writer.append(line);
+                RowWriter row = new RowWriter(headers.size());
+                for (T item : items) {
+                    row.clear();
+                    encoder.encode(item, row);
+                    line.setLength(0);
+                    for (int i = 0; i < headers.size(); i++) {
+                        if (i > 0) line.append(',');
+                        appendField(line, row.getText(i));
+                    }
+                    line.append('\n');
+                    writer.append(line);
+                }
+                writer.flush();
+            });
+        } catch (IOException e) {
+            throw new DataSaveError("Failed to write " + sourceId + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isDurable() {
+        return durable;
+    }
+
+    @Override
+    public long lastModified(String sourceId) {
+        return AtomicFiles.lastModified(Paths.get(sourceId));
+    }
+
+    private List<String> readHeaders(CsvTokenizer tokenizer) throws IOException {
+        List<String> headers = new ArrayList<>();
+        String value;
+        while ((value = tokenizer.nextField()) != null) {
+            headers.add(value);
+            if (tokenizer.isEndOfRecord()) break;
+        }
+        return headers;
+    }
+
+    private static void appendRecord(StringBuilder line, List<String> values) {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) line.append(',');
+            appendField(line, values.get(i));
+        }
+        line.append('\n');
+    }
+
+    // Appends a single field, quoting it only when it contains a delimiter, quote, line break or edge whitespace
+    static void appendField(StringBuilder line, String value) {
+        boolean needsQuotes = !value.isEmpty()
+                && (value.charAt(0) <= ' ' || value.charAt(value.length() - 1) <= ' ');
+        for (int i = 0; i < value.length() && !needsQuotes; i++) {
+            char c = value.charAt(i);
+            needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!needsQuotes) {
+            line.append(value);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') line.append('"');
+            line.append(c);
+        }
+        line.append('"');
+    }
 }
@@ -0,0 +1,180 @@
+package storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Single-pass, quote-aware CSV tokenizer over a {@link FileChannel}.
+ * Fields are produced one at a time straight from the decoded character stream,
+ * so no line strings or intermediate String[] arrays are built per row.
+ * Small files are read through a reusable buffer; large files are memory-mapped window by window.
+ */
+public final class CsvTokenizer implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long MAP_WINDOW = 256L * 1024 * 1024;
+    private static final char BOM = '\uFEFF';
+
+    private final FileChannel channel;
+    private final boolean mapped;
+    private final long size;
+    private final CharsetDecoder decoder;
+    private final CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+    private final StringBuilder field = new StringBuilder(64);
+
+    private ByteBuffer bytes;
+    private long mappedUpTo;
+    private boolean inputExhausted;
+    private boolean decoderFlushed;
+    private int pushback = -1;
+    private boolean atRecordStart = true;
+    private boolean endOfRecord;
+    private boolean firstChar = true;
+
+    public CsvTokenizer(FileChannel channel, long mmapThreshold) throws IOException {
+        this.channel = channel;
+        this.size = channel.size();
+        this.mapped = size >= mmapThreshold;
+        this.decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        if (mapped) {
+            this.bytes = ByteBuffer.allocate(0);
+        } else {
+            this.bytes = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            this.bytes.flip();
+        }
+        this.chars.flip();
+    }
+
+    /**
+     * Reads the next field of the current record.
+     * @return The field value, or null once the input holds no further records.
+     */
+    public String nextField() throws IOException {
+        int c = read();
+        if (c == -1) {
+            if (atRecordStart) return null;
+            // Input ended straight after a delimiter: the record ends with an empty field
+            atRecordStart = true;
+            endOfRecord = true;
+            return "";
+        }
+
+        field.setLength(0);
+        boolean quoted = false;
+        if (c == '"') {
+            quoted = true;
+            c = read();
+            while (c != -1) {
+                if (c == '"') {
+                    c = read();
+                    if (c != '"') break; // Closing quote
+                }
+                field.append((char) c);
+                c = read();
+            }
+            // Be lenient about stray characters between the closing quote and the delimiter
+            while (c != -1 && c != ',' && c != '\n' && c != '\r') {
+                field.append((char) c);
+                c = read();
+            }
+        } else {
+            while (c != -1 && c != ',' && c != '\n' && c != '\r') {
+                field.append((char) c);
+                c = read();
+            }
+        }
+
+        if (c == ',') {
+            atRecordStart = false;
+            endOfRecord = false;
+        } else {
+            if (c == '\r') {
+                int next = read();
+                if (next != '\n' && next != -1) pushback = next;
+            }
+            atRecordStart = true;
+            endOfRecord = true;
+        }
+        return quoted ? field.toString() : trimmed();
+    }
+
+    /**
+     * @return True if the field most recently returned by {@link #nextField()} was the last of its record.
+     */
+    public boolean isEndOfRecord() {
+        return endOfRecord;
+    }
+
+    // Unquoted fields are trimmed, matching the behaviour of the original line-based reader
+    private String trimmed() {
+        int start = 0;
+        int end = field.length();
+        while (start < end && field.charAt(start) <= ' ') start++;
+        while (end > start && field.charAt(end - 1) <= ' ') end--;
+        return (start == end) ? "" : field.substring(start, end);
+    }
+
+    private int read() throws IOException {
+        if (pushback != -1) {
+            int c = pushback;
+            pushback = -1;
+            return c;
+        }
+        if (!chars.hasRemaining() && !fillChars()) return -1;
+        char c = chars.get();
+        if (firstChar) {
+            firstChar = false;
+            if (c == BOM) return read();
+        }
+        return c;
+    }
+
+    private boolean fillChars() throws IOException {
+        if (decoderFlushed) return false;
+        chars.clear();
+        while (true) {
+            decoder.decode(bytes, chars, inputExhausted);
+            if (chars.position() > 0) break;
+            if (inputExhausted) {
+                decoder.flush(chars);
+                decoderFlushed = true;
+                break;
+            }
+            fillBytes();
+        }
+        chars.flip();
+        return chars.hasRemaining();
+    }
+
+    private void fillBytes() throws IOException {
+        if (mapped) {
+            if (mappedUpTo >= size) {
+                inputExhausted = true;
+                return;
+            }
+            // Carry over any partial multi-byte sequence left at the end of the previous window
+            long start = mappedUpTo - bytes.remaining();
+            long length = Math.min(MAP_WINDOW, size - start);
+            bytes = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            mappedUpTo = start + length;
+        } else {
+            bytes.compact();
+            int read = channel.read(bytes);
+            bytes.flip();
+            if (read == -1) inputExhausted = true;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
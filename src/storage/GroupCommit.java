@@ -0,0 +1,72 @@
+package storage;
+
+import java.io.IOException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Lets concurrent writers share one fsync. Each caller finishes its own write and then calls
+ * {@link #commit()}; one caller becomes the leader and syncs on behalf of every write that
+ * completed before its sync began, while the others wait for that sync instead of issuing their own.
+ * Waiting uses a ReentrantLock rather than a monitor, so virtual threads waiting here do not pin their carrier.
+ */
+public final class GroupCommit {
+
+    @FunctionalInterface
+    public interface SyncAction {
+        void sync() throws IOException;
+    }
+
+    private final SyncAction action;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition synced = lock.newCondition();
+    private long requested;
+    private long completed;
+    private boolean syncing;
+
+    public GroupCommit(SyncAction action) {
+        this.action = action;
+    }
+
+    /**
+     * Blocks until a sync that started after this call has completed.
+     * @throws IOException If the sync led by this caller fails; waiting callers then retry with a new leader.
+     */
+    public void commit() throws IOException {
+        long covered;
+        lock.lock();
+        try {
+            long ticket = ++requested;
+            while (true) {
+                if (completed >= ticket) return;
+                if (!syncing) break;
+                try {
+                    synced.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for group commit", e);
+                }
+            }
+            syncing = true;
+            // Every ticket issued so far belongs to a write that has already finished
+            covered = requested;
+        } finally {
+            lock.unlock();
+        }
+
+        boolean success = false;
+        try {
+            action.sync();
+            success = true;
+        } finally {
+            lock.lock();
+            try {
+                syncing = false;
+                if (success) completed = Math.max(completed, covered);
+                synced.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
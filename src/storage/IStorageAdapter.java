@@ -1,33 +1,50 @@
 package storage;
 
 import java.io.FileNotFoundException;
+import java.util.Collection;
 import java.util.List;
-import java.util.Map;
+import java.util.function.Consumer;
 
-import common.Tuple;
 import exception.DataLoadError;
 import exception.DataSaveError;
 
 public interface IStorageAdapter {
 
     /**
-     * Reads data from the specified source.
+     * Streams the rows of the specified source to a visitor.
      * @param sourceId Identifier for the data source (e.g., file path).
-     * @param expectedHeaders List of headers expected in the source.
-     * @return A tuple containing:
-     * - A List of maps representing the data rows.
-     * - The actual headers found in the source.
+     * @param expectedHeaders List of headers expected in the source; the visitor addresses columns by index into this list.
+     * @param visitor Called once per row with a cursor positioned on it. The cursor is reused between rows.
      * @throws DataLoadError If the source cannot be read or headers are invalid.
      * @throws FileNotFoundException If the source does not exist (implementations may handle creation).
      */
-    Tuple<List<Map<String, Object>>, List<String>> readData(String sourceId, List<String> expectedHeaders) throws DataLoadError, FileNotFoundException;
+    void readRows(String sourceId, List<String> expectedHeaders, Consumer<RowCursor> visitor) throws DataLoadError, FileNotFoundException;
 
     /**
-     * Writes data to the specified source.
+     * Writes the given items to the specified source, replacing its contents.
      * @param sourceId Identifier for the data source (e.g., file path).
      * @param headers The list of headers to write.
-     * @param dataDicts A list of maps representing the data rows.
+     * @param items The items to store, one row each.
+     * @param encoder Fills in the fields of an item's row, by index into {@code headers}.
      * @throws DataSaveError If the data cannot be written.
      */
-    void writeData(String sourceId, List<String> headers, List<Map<String, Object>> dataDicts) throws DataSaveError;
+    <T> void writeRows(String sourceId, List<String> headers, Collection<? extends T> items, RowEncoder<? super T> encoder) throws DataSaveError;
+
+    /**
+     * Indicates whether writes are forced to stable storage before returning.
+     * Journals kept alongside this adapter's files follow the same setting.
+     * @return True if writes are durable.
+     */
+    default boolean isDurable() {
+        return false;
+    }
+
+    /**
+     * Reports when the specified source was last written, so callers can tell which of two stores is newer.
+     * @param sourceId Identifier for the data source (e.g., file path).
+     * @return The modification time in milliseconds since the epoch, or -1 if the source does not exist or the time is unknown.
+     */
+    default long lastModified(String sourceId) {
+        return -1;
+    }
 }
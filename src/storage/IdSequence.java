@@ -0,0 +1,96 @@
+package storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import exception.DataLoadError;
+import exception.DataSaveError;
+
+/**
+ * Hands out increasing integer IDs without locking, persisting only the upper bound of the block
+ * reserved so far in a small sidecar file ({@code <sourceId>.seq}).
+ * The bound is written before any ID below it is handed out, so after a crash the sequence resumes
+ * at the stored bound and the unused rest of the last block is skipped rather than reissued.
+ */
+public final class IdSequence {
+
+    public static final String SUFFIX = ".seq";
+    public static final int DEFAULT_BLOCK_SIZE = 1000;
+
+    private final Path path;
+    private final int blockSize;
+    private final boolean durable;
+    private final AtomicInteger next = new AtomicInteger(1);
+    // Exclusive upper bound of the IDs already reserved on disk
+    private volatile int ceiling;
+
+    public IdSequence(String sourceId, int blockSize, boolean durable) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive.");
+        }
+        this.path = Paths.get(sourceId + SUFFIX);
+        this.blockSize = blockSize;
+        this.durable = durable;
+    }
+
+    public IdSequence(String sourceId, boolean durable) {
+        this(sourceId, DEFAULT_BLOCK_SIZE, durable);
+    }
+
+    /**
+     * Resumes from the sidecar file, if there is one.
+     * @return False if no sidecar exists yet, in which case the caller should {@link #seed(int)} the sequence.
+     * @throws DataLoadError If the sidecar exists but cannot be read.
+     */
+    public synchronized boolean open() throws DataLoadError {
+        if (!Files.exists(path)) return false;
+        try {
+            String text = new String(Files.readAllBytes(path), StandardCharsets.UTF_8).trim();
+            int stored = Integer.parseInt(text);
+            ceiling = stored;
+            seed(stored);
+            return true;
+        } catch (IOException | NumberFormatException e) {
+            throw new DataLoadError("Failed to read ID sequence " + path, e);
+        }
+    }
+
+    /**
+     * Makes sure no ID below {@code minimum} is handed out from now on.
+     */
+    public void seed(int minimum) {
+        next.accumulateAndGet(minimum, Math::max);
+    }
+
+    /**
+     * @return A new ID, unique across restarts. Only the first call in each block touches the disk.
+     * @throws DataSaveError If a new block cannot be reserved.
+     */
+    public int next() throws DataSaveError {
+        int id = next.getAndIncrement();
+        if (id >= ceiling) reserve(id);
+        return id;
+    }
+
+    // Called by whichever threads ran past the reserved block; the first one persists the next block
+    private synchronized void reserve(int id) throws DataSaveError {
+        if (id < ceiling) return;
+        int bound = id + blockSize;
+        try {
+            AtomicFiles.replace(path, durable, channel -> {
+                ByteBuffer buffer = StandardCharsets.UTF_8.encode(bound + "\n");
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            });
+        } catch (IOException e) {
+            throw new DataSaveError("Failed to reserve IDs in " + path + ": " + e.getMessage());
+        }
+        ceiling = bound;
+    }
+}
@@ -0,0 +1,54 @@
+package storage;
+
+import java.time.LocalDate;
+
+import util.DateUtil;
+import util.StringDictionary;
+
+/**
+ * Read-only view of the current row while an {@link IStorageAdapter} streams a source.
+ * Columns are addressed by their index in the header list the repository asked for, so
+ * header names are resolved once per file rather than once per field.
+ * Adapters reuse a single cursor for every row; it must not be kept after the callback returns.
+ */
+public interface RowCursor {
+
+    /**
+     * @param column Index into the requested headers.
+     * @return The value as text, or an empty string if the source has no such column.
+     */
+    String getString(int column);
+
+    /**
+     * For columns with few distinct values, such as project names: the text as its canonical
+     * {@link StringDictionary} instance, shared by every row holding the same value.
+     */
+    default String getSymbol(int column) {
+        return StringDictionary.canonical(getString(column));
+    }
+
+    /**
+     * @throws NumberFormatException If the value is not an integer.
+     */
+    int getInt(int column);
+
+    boolean getBoolean(int column);
+
+    /**
+     * @return The date, or null if the value is empty or not a valid date.
+     */
+    LocalDate getDate(int column);
+
+    /**
+     * @return The date as days since 1970-01-01, or {@link DateUtil#NO_DATE} if the value is empty or not a valid date.
+     */
+    default long getEpochDay(int column) {
+        LocalDate date = getDate(column);
+        return date == null ? DateUtil.NO_DATE : date.toEpochDay();
+    }
+
+    /**
+     * @throws IllegalArgumentException If the value does not name a constant of {@code type}.
+     */
+    <E extends Enum<E>> E getEnum(int column, Class<E> type);
+}
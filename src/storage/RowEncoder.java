@@ -0,0 +1,10 @@
+package storage;
+
+/**
+ * Writes the fields of one item into a {@link RowWriter}.
+ * @param <T> The type of item being stored.
+ */
+@FunctionalInterface
+public interface RowEncoder<T> {
+    void encode(T item, RowWriter row);
+}
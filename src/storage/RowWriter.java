@@ -0,0 +1,107 @@
+package storage;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import util.DateUtil;
+
+/**
+ * Reusable buffer for the fields of one row being written, addressed by header index.
+ * Values keep their type until the adapter encodes them, so each storage format can choose its own representation.
+ */
+public final class RowWriter {
+
+    // Stands in the values array for a date set by setEpochDay(), whose day is kept unboxed in epochDays
+    private static final Object EPOCH_DAY = new Object();
+
+    private final Object[] values;
+    private final long[] epochDays;
+
+    public RowWriter(int columns) {
+        this.values = new Object[columns];
+        this.epochDays = new long[columns];
+    }
+
+    public RowWriter setString(int column, String value) {
+        values[column] = value;
+        return this;
+    }
+
+    public RowWriter setInt(int column, int value) {
+        values[column] = value;
+        return this;
+    }
+
+    public RowWriter setBoolean(int column, boolean value) {
+        values[column] = value;
+        return this;
+    }
+
+    public RowWriter setDate(int column, LocalDate value) {
+        values[column] = value;
+        return this;
+    }
+
+    /**
+     * Sets a date given as days since 1970-01-01 without creating a {@link LocalDate};
+     * {@link DateUtil#NO_DATE} leaves the column empty.
+     */
+    public RowWriter setEpochDay(int column, long epochDay) {
+        values[column] = epochDay == DateUtil.NO_DATE ? null : EPOCH_DAY;
+        epochDays[column] = epochDay;
+        return this;
+    }
+
+    public RowWriter setEnum(int column, Enum<?> value) {
+        values[column] = value;
+        return this;
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * @return The typed value of the column, or null if it was not set.
+     */
+    public Object getValue(int column) {
+        Object value = values[column];
+        return value == EPOCH_DAY ? LocalDate.ofEpochDay(epochDays[column]) : value;
+    }
+
+    public boolean isEpochDay(int column) {
+        return values[column] == EPOCH_DAY;
+    }
+
+    /**
+     * @return The day set by {@link #setEpochDay}; only meaningful when {@link #isEpochDay} is true.
+     */
+    public long getEpochDay(int column) {
+        return epochDays[column];
+    }
+
+    /**
+     * @return The value in its text form: dates as {@link DateUtil#DATE_FORMAT}, enums by constant name.
+     */
+    public String getText(int column) {
+        Object value = values[column];
+        if (value == null) return "";
+        if (value instanceof String) return (String) value;
+        if (value == EPOCH_DAY) return DateUtil.formatEpochDay(epochDays[column]);
+        if (value instanceof LocalDate) return DateUtil.formatEpochDay(((LocalDate) value).toEpochDay());
+        if (value instanceof Enum) return ((Enum<?>) value).name();
+        return value.toString();
+    }
+
+    public String[] toText() {
+        String[] text = new String[values.length];
+        for (int i = 0; i < values.length; i++) {
+            text[i] = getText(i);
+        }
+        return text;
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+    }
+}
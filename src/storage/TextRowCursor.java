@@ -0,0 +1,85 @@
+package storage;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import util.DateUtil;
+
+/**
+ * {@link RowCursor} over rows stored as text, such as CSV records and journal lines.
+ * The mapping from requested columns to positions in the source is computed once from the source's header row.
+ */
+public final class TextRowCursor implements RowCursor {
+
+    private final List<String> columns;
+    private final int[] positions;
+    private String[] fields = new String[0];
+
+    /**
+     * @param sourceHeaders The headers in the order the source stores its fields.
+     * @param columns The headers the caller addresses by index.
+     */
+    public TextRowCursor(List<String> sourceHeaders, List<String> columns) {
+        this.columns = columns;
+        this.positions = new int[columns.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = sourceHeaders.indexOf(columns.get(i));
+        }
+    }
+
+    /**
+     * @return A cursor over a single row whose fields are already in the order of {@code headers}.
+     */
+    public static TextRowCursor over(List<String> headers, String[] fields) {
+        TextRowCursor cursor = new TextRowCursor(headers, headers);
+        cursor.reset(fields);
+        return cursor;
+    }
+
+    // Points the cursor at the next row; the array holds the fields in source order
+    void reset(String[] fields) {
+        this.fields = fields;
+    }
+
+    @Override
+    public String getString(int column) {
+        int position = positions[column];
+        if (position < 0 || position >= fields.length || fields[position] == null) return "";
+        return fields[position];
+    }
+
+    @Override
+    public int getInt(int column) {
+        return Integer.parseInt(getString(column).trim());
+    }
+
+    @Override
+    public boolean getBoolean(int column) {
+        return Boolean.parseBoolean(getString(column).trim());
+    }
+
+    @Override
+    public LocalDate getDate(int column) {
+        return DateUtil.parseDate(getString(column).trim());
+    }
+
+    @Override
+    public long getEpochDay(int column) {
+        return DateUtil.parseEpochDay(getString(column).trim());
+    }
+
+    @Override
+    public <E extends Enum<E>> E getEnum(int column, Class<E> type) {
+        return Enum.valueOf(type, getString(column).trim());
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("{");
+        for (int i = 0; i < positions.length; i++) {
+            if (i > 0) text.append(", ");
+            text.append(columns.get(i)).append('=').append(getString(i));
+        }
+        return text.append('}').toString();
+    }
+}
@@ -0,0 +1,262 @@
+package storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import exception.DataLoadError;
+import exception.DataSaveError;
+import storage.WriteAheadJournal.Operation;
+
+/**
+ * Append-only log of multi-repository transactions. A transaction is committed by a single
+ * checksummed COMMIT line holding every changed row of every repository it touched. It is the
+ * durable copy of those rows until the repositories have synced their own journals and it is truncated.
+ *
+ * Line layout: {@code COMMIT,id,changeCount,(source,operation,fieldCount,fields...)*,checksum}.
+ */
+public class TransactionJournal {
+
+    private static final String COMMIT = "COMMIT";
+
+    /**
+     * One changed row: the full storage row of the item in its repository's header order
+     * (its state before removal for DELETE).
+     */
+    public static final class Change {
+        private final String sourceId;
+        private final Operation operation;
+        private final String[] row;
+
+        public Change(String sourceId, Operation operation, String[] row) {
+            this.sourceId = sourceId;
+            this.operation = operation;
+            this.row = row;
+        }
+
+        public String getSourceId() {
+            return sourceId;
+        }
+
+        public Operation getOperation() {
+            return operation;
+        }
+
+        public String[] getRow() {
+            return row;
+        }
+    }
+
+    @FunctionalInterface
+    public interface TransactionVisitor {
+        void visit(long transactionId, List<Change> changes);
+    }
+
+    private final Path path;
+    private final boolean durable;
+    private final GroupCommit groupCommit;
+    private FileChannel channel;
+    private int recordCount;
+
+    public TransactionJournal(String journalPath, boolean durable) {
+        this.path = Paths.get(journalPath);
+        this.durable = durable;
+        this.groupCommit = new GroupCommit(this::forceChannel);
+    }
+
+    /**
+     * Writes the commit record of a transaction with a single append. In durable mode it is only known to be
+     * on disk once {@link #sync()} returns.
+     * @throws DataSaveError If the record cannot be written, in which case the transaction did not commit.
+     */
+    public void commit(long transactionId, List<Change> changes) throws DataSaveError {
+        StringBuilder line = new StringBuilder(128 * (changes.size() + 1));
+        CsvStorageAdapter.appendField(line, COMMIT);
+        line.append(',').append(transactionId).append(',').append(changes.size());
+        for (Change change : changes) {
+            line.append(',');
+            CsvStorageAdapter.appendField(line, change.getSourceId());
+            line.append(',').append(change.getOperation().name()).append(',').append(change.getRow().length);
+            for (String field : change.getRow()) {
+                line.append(',');
+                CsvStorageAdapter.appendField(line, field == null ? "" : field);
+            }
+        }
+        appendChecksum(line);
+        synchronized (this) {
+            write(line);
+        }
+    }
+
+    /**
+     * In durable mode, waits until every record written so far is on disk; concurrent committers share a single fsync.
+     * @throws DataSaveError If the journal cannot be synced.
+     */
+    public void sync() throws DataSaveError {
+        if (!durable) return;
+        try {
+            groupCommit.commit();
+        } catch (IOException e) {
+            throw new DataSaveError("Failed to sync transaction journal " + path + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Passes every committed transaction to the visitor, in commit order.
+     * The visitor decides per repository whether the rows still need replaying.
+     * @return The highest transaction ID found in the journal, or 0 if it is empty.
+     * @throws DataLoadError If the journal exists but cannot be read.
+     */
+    public synchronized long replayPending(TransactionVisitor visitor) throws DataLoadError {
+        recordCount = 0;
+        if (!Files.exists(path)) return 0;
+
+        Map<Long, List<Change>> pending = new LinkedHashMap<>();
+        long maxId = 0;
+        try (CsvTokenizer tokenizer = new CsvTokenizer(FileChannel.open(path, StandardOpenOption.READ), Long.MAX_VALUE)) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder line = new StringBuilder(128);
+            String value;
+            while ((value = tokenizer.nextField()) != null) {
+                fields.add(value);
+                if (!tokenizer.isEndOfRecord()) continue;
+
+                if (verify(fields, line)) {
+                    try {
+                        if (!COMMIT.equals(fields.get(0))) throw new IllegalArgumentException();
+                        long id = Long.parseLong(fields.get(1));
+                        pending.put(id, parseChanges(fields));
+                        maxId = Math.max(maxId, id);
+                        recordCount++;
+                    } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                        System.out.println("Warning: Skipping malformed transaction record in " + path);
+                    }
+                } else if (fields.size() > 1 || !fields.get(0).isEmpty()) {
+                    System.out.println("Warning: Skipping damaged transaction record in " + path);
+                }
+                fields.clear();
+            }
+        } catch (IOException e) {
+            throw new DataLoadError("Failed to read transaction journal " + path, e);
+        }
+
+        for (Map.Entry<Long, List<Change>> transaction : pending.entrySet()) {
+            visitor.visit(transaction.getKey(), transaction.getValue());
+        }
+        return maxId;
+    }
+
+    /**
+     * Discards all records. Only call once every repository has synced the rows of every transaction in it.
+     */
+    public synchronized void truncate() throws DataSaveError {
+        try {
+            closeChannel();
+            Files.deleteIfExists(path);
+            recordCount = 0;
+        } catch (IOException e) {
+            throw new DataSaveError("Failed to truncate transaction journal " + path + ": " + e.getMessage());
+        }
+    }
+
+    public synchronized int getRecordCount() {
+        return recordCount;
+    }
+
+    private static List<Change> parseChanges(List<String> fields) {
+        int count = Integer.parseInt(fields.get(2));
+        List<Change> changes = new ArrayList<>(count);
+        int position = 3;
+        for (int i = 0; i < count; i++) {
+            String sourceId = fields.get(position++);
+            Operation operation = Operation.valueOf(fields.get(position++));
+            int width = Integer.parseInt(fields.get(position++));
+            String[] row = fields.subList(position, position + width).toArray(new String[0]);
+            position += width;
+            changes.add(new Change(sourceId, operation, row));
+        }
+        return changes;
+    }
+
+    private void write(StringBuilder line) throws DataSaveError {
+        try {
+            if (channel == null) {
+                if (path.getParent() != null) {
+                    Files.createDirectories(path.getParent());
+                }
+                // After a torn commit record, start on a fresh line so this record is not glued onto it and lost
+                boolean torn = Files.exists(path) && !WriteAheadJournal.endsWithNewline(path);
+                channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                if (torn) line.insert(0, '\n');
+            }
+            ByteBuffer buffer = StandardCharsets.UTF_8.encode(line.toString());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            recordCount++;
+        } catch (IOException e) {
+            closeChannel();
+            throw new DataSaveError("Failed to append to transaction journal " + path + ": " + e.getMessage());
+        }
+    }
+
+    private void forceChannel() throws IOException {
+        FileChannel current;
+        synchronized (this) {
+            current = channel;
+        }
+        if (current == null) return;
+        try {
+            current.force(false);
+        } catch (ClosedChannelException e) {
+            // Truncated while syncing; every repository had already synced the rows in it
+        }
+    }
+
+    private static void appendChecksum(StringBuilder line) {
+        long checksum = checksum(line);
+        line.append(',').append(checksum).append('\n');
+    }
+
+    // Re-encode the fields exactly as they were written and compare checksums
+    private static boolean verify(List<String> fields, StringBuilder line) {
+        if (fields.size() < 3) return false;
+        line.setLength(0);
+        for (int i = 0; i < fields.size() - 1; i++) {
+            if (i > 0) line.append(',');
+            CsvStorageAdapter.appendField(line, fields.get(i));
+        }
+        try {
+            return Long.parseLong(fields.get(fields.size() - 1)) == checksum(line);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static long checksum(StringBuilder line) {
+        CRC32 crc = new CRC32();
+        crc.update(StandardCharsets.UTF_8.encode(line.toString()));
+        return crc.getValue();
+    }
+
+    private void closeChannel() {
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.out.println("Warning: Failed to close transaction journal " + path + ": " + e.getMessage());
+        }
+        channel = null;
+    }
+}
@@ -0,0 +1,320 @@
+package storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import common.Tuple;
+import exception.DataLoadError;
+import exception.DataSaveError;
+
+/**
+ * Append-only journal of repository mutations, stored next to the data file.
+ * Each record is one CSV line: the operation, the full row image and a CRC32 checksum,
+ * so a torn final line left by a crash is detected and skipped during replay.
+ * A TRANSACTION line, with the transaction ID in the first column, follows the rows of a
+ * transaction and tells recovery that everything up to that transaction is already in the file.
+ */
+public class WriteAheadJournal {
+
+    public enum Operation {
+        ADD, UPDATE, DELETE
+    }
+
+    @FunctionalInterface
+    public interface RecordVisitor {
+        void visit(Operation operation, RowCursor row);
+    }
+
+    private static final String OPERATION_HEADER = "Operation";
+    private static final String CHECKSUM_HEADER = "Checksum";
+    private static final String TRANSACTION = "TRANSACTION";
+
+    private final Path path;
+    private final List<String> headers;
+    private final boolean durable;
+    private final GroupCommit groupCommit;
+    private FileChannel channel;
+    private int recordCount;
+    private long transactionId;
+
+    public WriteAheadJournal(String journalPath, List<String> headers, boolean durable) {
+        this.path = Paths.get(journalPath);
+        this.headers = headers;
+        this.durable = durable;
+        this.groupCommit = new GroupCommit(this::forceChannel);
+    }
+
+    public WriteAheadJournal(String journalPath, List<String> headers) {
+        this(journalPath, headers, false);
+    }
+
+    /**
+     * Appends a single mutation record. It is not necessarily on disk until {@link #sync()} returns.
+     * @param operation The kind of mutation.
+     * @param row The full storage row of the affected item in header order (its state before removal for DELETE).
+     * @throws DataSaveError If the record cannot be written.
+     */
+    public void append(Operation operation, String[] row) throws DataSaveError {
+        StringBuilder line = new StringBuilder(128);
+        encodeRecord(line, operation.name(), row);
+        synchronized (this) {
+            write(line, 1);
+        }
+    }
+
+    /**
+     * Appends a batch of mutation records with a single write. They are not necessarily on disk until {@link #sync()} returns.
+     * @param records The (operation, row) pairs to append, in order.
+     * @throws DataSaveError If the records cannot be written.
+     */
+    public void appendAll(List<Tuple<Operation, String[]>> records) throws DataSaveError {
+        appendAll(records, 0);
+    }
+
+    /**
+     * As {@link #appendAll(List)}, followed in the same write by a TRANSACTION line if {@code transactionId}
+     * is higher than any recorded so far.
+     * @param transactionId The highest transaction whose rows are among or before these records, or 0 if none.
+     */
+    public void appendAll(List<Tuple<Operation, String[]>> records, long transactionId) throws DataSaveError {
+        StringBuilder lines = new StringBuilder(128 * (records.size() + 1));
+        for (Tuple<Operation, String[]> record : records) {
+            encodeRecord(lines, record.getFirst().name(), record.getSecond());
+        }
+        synchronized (this) {
+            boolean marked = transactionId > this.transactionId;
+            if (marked) encodeRecord(lines, TRANSACTION, new String[] { Long.toString(transactionId) });
+            if (lines.length() == 0) return;
+            write(lines, records.size());
+            if (marked) this.transactionId = transactionId;
+        }
+    }
+
+    /**
+     * Passes every intact record to the visitor in the order it was appended.
+     * The row cursor addresses columns by index into this journal's headers and is reused between records.
+     * @return The number of records replayed.
+     * @throws DataLoadError If the journal exists but cannot be read.
+     */
+    public synchronized int replay(RecordVisitor visitor) throws DataLoadError {
+        recordCount = 0;
+        if (!Files.exists(path)) return 0;
+
+        try (CsvTokenizer tokenizer = new CsvTokenizer(FileChannel.open(path, StandardOpenOption.READ), Long.MAX_VALUE)) {
+            List<String> fileHeaders = new ArrayList<>();
+            String value;
+            while ((value = tokenizer.nextField()) != null) {
+                fileHeaders.add(value);
+                if (tokenizer.isEndOfRecord()) break;
+            }
+
+            TextRowCursor cursor = new TextRowCursor(fileHeaders, headers);
+            String[] fields = new String[fileHeaders.size()];
+            cursor.reset(fields);
+            StringBuilder line = new StringBuilder(128);
+            int column = 0;
+            boolean damaged = false;
+            while ((value = tokenizer.nextField()) != null) {
+                if (column < fields.length) {
+                    fields[column] = value;
+                } else {
+                    damaged = true;
+                }
+                column++;
+                if (!tokenizer.isEndOfRecord()) continue;
+
+                String operation = damaged || column != fields.length ? null : verify(fields, line);
+                if (operation == null) {
+                    System.out.println("Warning: Skipping damaged journal record in " + path);
+                } else if (operation.equals(TRANSACTION)) {
+                    transactionId = Math.max(transactionId, Long.parseLong(fields[1]));
+                } else {
+                    visitor.visit(Operation.valueOf(operation), cursor);
+                    recordCount++;
+                }
+                column = 0;
+                damaged = false;
+            }
+        } catch (IOException e) {
+            throw new DataLoadError("Failed to read journal " + path, e);
+        }
+        return recordCount;
+    }
+
+    /**
+     * Discards all records. Called once their effects are captured in a full snapshot.
+     * The highest transaction ID recorded so far is kept, as the only line of the new journal.
+     */
+    public synchronized void truncate() throws DataSaveError {
+        try {
+            closeChannel();
+            recordCount = 0;
+            if (transactionId == 0) {
+                Files.deleteIfExists(path);
+                return;
+            }
+            StringBuilder lines = new StringBuilder(128);
+            encodeHeader(lines);
+            encodeRecord(lines, TRANSACTION, new String[] { Long.toString(transactionId) });
+            AtomicFiles.replace(path, durable, channel -> {
+                ByteBuffer buffer = StandardCharsets.UTF_8.encode(lines.toString());
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            });
+        } catch (IOException e) {
+            throw new DataSaveError("Failed to truncate journal " + path + ": " + e.getMessage());
+        }
+    }
+
+    public synchronized int getRecordCount() {
+        return recordCount;
+    }
+
+    // The highest transaction ID recorded in this journal, i.e. the last transaction whose rows it is known to hold
+    public synchronized long getTransactionId() {
+        return transactionId;
+    }
+
+    // Raises the recorded transaction ID without appending, for rows that reach the data file directly through a snapshot
+    public synchronized void setTransactionId(long transactionId) {
+        this.transactionId = Math.max(this.transactionId, transactionId);
+    }
+
+    private void write(StringBuilder records, int count) throws DataSaveError {
+        try {
+            if (channel == null) {
+                if (path.getParent() != null) {
+                    Files.createDirectories(path.getParent());
+                }
+                boolean isNew = !Files.exists(path) || Files.size(path) == 0;
+                boolean torn = !isNew && !endsWithNewline(path);
+                channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                if (isNew) {
+                    StringBuilder header = new StringBuilder();
+                    encodeHeader(header);
+                    records.insert(0, header);
+                } else if (torn) {
+                    records.insert(0, '\n');
+                }
+            }
+            ByteBuffer buffer = StandardCharsets.UTF_8.encode(records.toString());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            recordCount += count;
+        } catch (IOException e) {
+            closeChannel();
+            throw new DataSaveError("Failed to append to journal " + path + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * A crash can leave a torn final line behind. Replay skips it, but a record appended straight onto it
+     * would be glued to it and skipped too, so appending starts on a fresh line whenever the file does not end in one.
+     */
+    static boolean endsWithNewline(Path path) throws IOException {
+        try (FileChannel reader = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = reader.size();
+            if (size == 0) return true;
+            ByteBuffer last = ByteBuffer.allocate(1);
+            reader.read(last, size - 1);
+            return last.get(0) == '\n';
+        }
+    }
+
+    /**
+     * In durable mode, waits until every record appended so far is on disk; concurrent callers share a single fsync.
+     * Call it after releasing any lock other appenders need, or they cannot join the same fsync.
+     * @throws DataSaveError If the journal cannot be synced.
+     */
+    public void sync() throws DataSaveError {
+        if (!durable) return;
+        try {
+            groupCommit.commit();
+        } catch (IOException e) {
+            throw new DataSaveError("Failed to sync journal " + path + ": " + e.getMessage());
+        }
+    }
+
+    private void forceChannel() throws IOException {
+        FileChannel current;
+        synchronized (this) {
+            current = channel;
+        }
+        if (current == null) return; // Truncated: the records are already part of a snapshot
+        try {
+            current.force(false);
+        } catch (ClosedChannelException e) {
+            // Truncated while syncing; the snapshot that replaced the records was written first
+        }
+    }
+
+    private void encodeHeader(StringBuilder line) {
+        CsvStorageAdapter.appendField(line, OPERATION_HEADER);
+        for (String h : headers) {
+            line.append(',');
+            CsvStorageAdapter.appendField(line, h);
+        }
+        line.append(',').append(CHECKSUM_HEADER).append('\n');
+    }
+
+    private void encodeRecord(StringBuilder line, String operation, String[] row) {
+        int start = line.length();
+        CsvStorageAdapter.appendField(line, operation);
+        for (int i = 0; i < headers.size(); i++) {
+            line.append(',');
+            CsvStorageAdapter.appendField(line, (i < row.length && row[i] != null) ? row[i] : "");
+        }
+        long checksum = checksum(line, start);
+        line.append(',').append(checksum).append('\n');
+    }
+
+    // Returns the record's operation, or TRANSACTION, if its checksum matches, or null if the record is damaged
+    private String verify(String[] fields, StringBuilder line) {
+        if (fields.length < 2) return null;
+
+        // Re-encode the fields exactly as they were written and compare checksums
+        line.setLength(0);
+        for (int i = 0; i < fields.length - 1; i++) {
+            if (i > 0) line.append(',');
+            CsvStorageAdapter.appendField(line, fields[i]);
+        }
+        try {
+            if (Long.parseLong(fields[fields.length - 1]) != checksum(line, 0)) return null;
+            if (fields[0].equals(TRANSACTION)) {
+                Long.parseLong(fields[1]);
+                return TRANSACTION;
+            }
+            return Operation.valueOf(fields[0]).name();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static long checksum(StringBuilder line, int start) {
+        CRC32 crc = new CRC32();
+        crc.update(StandardCharsets.UTF_8.encode(line.substring(start)));
+        return crc.getValue();
+    }
+
+    private void closeChannel() {
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.out.println("Warning: Failed to close journal " + path + ": " + e.getMessage());
+        }
+        channel = null;
+    }
+}
@@ -3,6 +3,8 @@ package util;
 import java.io.*;
 import java.util.*;
 
+// Superseded by storage.CsvStorageAdapter, which streams files through a quote-aware tokenizer
+@Deprecated
 public class CsvUtil {
 
     public static List<Map<String, String>> readCsv(String filePath, List<String> headers) throws IOException {
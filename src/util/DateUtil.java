@@ -1,12 +1,19 @@
 package util;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 
 public class DateUtil {
     // Constant for date format
     public static final String DATE_FORMAT = "yyyy-MM-dd";
+    // Returned by parseEpochDay() for a missing or invalid date
+    public static final long NO_DATE = Long.MIN_VALUE;
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern(DATE_FORMAT);
 
     // Parses a date string into a LocalDate object
     public static LocalDate parseDate(String dateStr) {
@@ -14,28 +21,81 @@ public class DateUtil {
             return null; // Return null if input is null or empty
         }
         try {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern(DATE_FORMAT);
-            return LocalDate.parse(dateStr, formatter); // Parse the date string to LocalDate
+            return LocalDate.parse(dateStr, FORMATTER); // Parse the date string to LocalDate
         } catch (DateTimeParseException e) {
             return null; // Return null if parsing fails
         }
     }
 
-    // Formats a LocalDate object into a string
+    // Formats a LocalDate or java.util.Date into a string; a java.util.Date is read as a day in the system time zone
     public static String formatDate(Object date) {
         if (date instanceof LocalDate) {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern(DATE_FORMAT);
-            return ((LocalDate) date).format(formatter);  // Format LocalDate directly
+            return ((LocalDate) date).format(FORMATTER);
         } else if (date instanceof java.util.Date) {
-            // Handle java.util.Date (you can use SimpleDateFormat or DateTimeFormatter)
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern(DATE_FORMAT);
-            java.sql.Date sqlDate = (java.sql.Date) date;
-            LocalDate localDate = sqlDate.toLocalDate(); // Convert to LocalDate
-            return localDate.format(formatter);
+            return formatEpochDay(toEpochDay((java.util.Date) date));
         }
         throw new IllegalArgumentException("Unsupported date type");
-    
-}
+    }
+
+    /**
+     * Parses a {@link #DATE_FORMAT} string straight to its epoch day, without a formatter or parse context.
+     * Accepts exactly what {@link #parseDate} accepts.
+     * @return The epoch day, or {@link #NO_DATE} if the text is empty or not a valid date.
+     */
+    public static long parseEpochDay(String dateStr) {
+        if (dateStr == null || dateStr.length() != 10 || dateStr.charAt(4) != '-' || dateStr.charAt(7) != '-') {
+            return NO_DATE;
+        }
+        int year = digits(dateStr, 0, 4);
+        int month = digits(dateStr, 5, 7);
+        int day = digits(dateStr, 8, 10);
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > 31) {
+            return NO_DATE;
+        }
+        // Clamp days past the month's end, as parseDate's resolver does, so both parsers agree
+        return LocalDate.of(year, month, Math.min(day, YearMonth.of(year, month).lengthOfMonth())).toEpochDay();
+    }
+
+    // Formats an epoch day as DATE_FORMAT; years outside 0000-9999 fall back to LocalDate's own format
+    public static String formatEpochDay(long epochDay) {
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        int year = date.getYear();
+        if (year < 0 || year > 9999) return date.toString();
+        char[] text = new char[10];
+        putDigits(text, 0, 4, year);
+        text[4] = '-';
+        putDigits(text, 5, 7, date.getMonthValue());
+        text[7] = '-';
+        putDigits(text, 8, 10, date.getDayOfMonth());
+        return new String(text);
+    }
+
+    // The calendar day of the instant in the system time zone
+    public static long toEpochDay(java.util.Date date) {
+        return LocalDate.ofInstant(Instant.ofEpochMilli(date.getTime()), ZoneId.systemDefault()).toEpochDay();
+    }
+
+    // Start of the day in the system time zone, matching how project dates were always held as java.util.Date
+    public static java.util.Date toDate(long epochDay) {
+        return java.util.Date.from(LocalDate.ofEpochDay(epochDay).atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    private static int digits(String text, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static void putDigits(char[] text, int from, int to, int value) {
+        for (int i = to - 1; i >= from; i--) {
+            text[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
 
     // Checks if two date ranges overlap
     public static boolean datesOverlap(LocalDate start1, LocalDate end1, LocalDate start2, LocalDate end2) {
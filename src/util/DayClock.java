@@ -0,0 +1,74 @@
+package util;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * Today's date as an epoch day, cached until the next midnight of the clock's time zone. Checks such as whether
+ * a project is open can then compare plain ints, and asking for today costs one read of the clock.
+ *
+ * The clock is injectable: {@link #setCurrent} swaps the instance the models consult, e.g. for a fixed date
+ * when replaying data. Safe for concurrent use.
+ */
+public final class DayClock {
+
+    private static volatile DayClock current = new DayClock(Clock.systemDefaultZone());
+
+    private final Clock clock;
+    private volatile Day day;
+
+    // The cached day and the half-open range of clock millis it covers; replaced whole so readers never see a mix
+    private static final class Day {
+        final int epochDay;
+        final long startMillis;
+        final long endMillis;
+
+        Day(int epochDay, long startMillis, long endMillis) {
+            this.epochDay = epochDay;
+            this.startMillis = startMillis;
+            this.endMillis = endMillis;
+        }
+    }
+
+    public DayClock(Clock clock) {
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock must be provided.");
+        }
+        this.clock = clock;
+    }
+
+    public static DayClock current() {
+        return current;
+    }
+
+    public static void setCurrent(DayClock dayClock) {
+        if (dayClock == null) {
+            throw new IllegalArgumentException("Day clock must be provided.");
+        }
+        current = dayClock;
+    }
+
+    /**
+     * @return Today's epoch day in the clock's time zone.
+     */
+    public int today() {
+        long now = clock.millis();
+        Day cached = day;
+        // Also recomputed when the clock moves backwards past the start of the cached day
+        if (cached == null || now < cached.startMillis || now >= cached.endMillis) {
+            cached = dayAt(now);
+            day = cached;
+        }
+        return cached.epochDay;
+    }
+
+    private Day dayAt(long millis) {
+        ZoneId zone = clock.getZone();
+        LocalDate date = LocalDate.ofInstant(Instant.ofEpochMilli(millis), zone);
+        long start = date.atStartOfDay(zone).toInstant().toEpochMilli();
+        long end = date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        return new Day(Math.toIntExact(date.toEpochDay()), start, end);
+    }
+}
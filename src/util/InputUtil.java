@@ -5,10 +5,8 @@ import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.time.LocalDate;
 import java.util.List;
-import java.util.Scanner;
 import java.time.format.DateTimeParseException;
 public class InputUtil {
-    private static final Scanner scanner = new Scanner(System.in);
     
     private static final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
     private static final String NRIC_REGEX = "^[STFG]\\d{7}[A-Z]$";
@@ -28,10 +26,10 @@ public class InputUtil {
     // Gets a non-empty string input
     public static String getNonEmptyInput(String prompt) {
         while (true) {
-            System.out.print(prompt + ": ");
-            String input = scanner.nextLine().trim();
+            SessionIO.out().print(prompt + ": ");
+            String input = SessionIO.readLine().trim();
             if (!input.isEmpty()) return input;
-            System.out.println("ERROR: Input cannot be empty.");
+            SessionIO.out().println("ERROR: Input cannot be empty.");
         }
     }
 
@@ -39,8 +37,8 @@ public class InputUtil {
     public static int getValidIntegerInput(String prompt, Integer minVal, Integer maxVal) {
         while (true) {
             try {
-                System.out.print(prompt + ": ");
-                String input = scanner.nextLine().trim();
+                SessionIO.out().print(prompt + ": ");
+                String input = SessionIO.readLine().trim();
                 int value = Integer.parseInt(input);
 
                 boolean outOfRange = (minVal != null && value < minVal) || (maxVal != null && value > maxVal);
@@ -53,12 +51,12 @@ public class InputUtil {
                     } else if (maxVal != null) {
                         rangeMsg = " <= " + maxVal;
                     }
-                    System.out.println("ERROR: Input must be an integer" + rangeMsg + ".");
+                    SessionIO.out().println("ERROR: Input must be an integer" + rangeMsg + ".");
                 } else {
                     return value;
                 }
             } catch (NumberFormatException e) {
-                System.out.println("ERROR: Invalid input. Please enter an integer.");
+                SessionIO.out().println("ERROR: Invalid input. Please enter an integer.");
             }
         }
     }
@@ -71,13 +69,13 @@ public class InputUtil {
     // Gets a LocalDate input using the standard format
     public static LocalDate getValidDateInput(String prompt) {
         while (true) {
-            System.out.print(prompt + " (" + DateUtil.DATE_FORMAT + "): ");
-            String input = scanner.nextLine().trim();
+            SessionIO.out().print(prompt + " (" + DateUtil.DATE_FORMAT + "): ");
+            String input = SessionIO.readLine().trim();
             LocalDate date = DateUtil.parseDate(input);
             if (date != null) {
                 return date;
             } else {
-                System.out.println("ERROR: Invalid date format. Please use " + DateUtil.DATE_FORMAT + ".");
+                SessionIO.out().println("ERROR: Invalid date format. Please use " + DateUtil.DATE_FORMAT + ".");
             }
         }
     }
@@ -85,18 +83,18 @@ public class InputUtil {
     // Gets a yes/no confirmation
     public static boolean getYesNoInput(String prompt) {
         while (true) {
-            System.out.print(prompt + " (y/n): ");
-            String input = scanner.nextLine().trim().toLowerCase();
+            SessionIO.out().print(prompt + " (y/n): ");
+            String input = SessionIO.readLine().trim().toLowerCase();
             if (input.equals("y")) return true;
             if (input.equals("n")) return false;
-            System.out.println("ERROR: Please enter 'y' or 'n'.");
+            SessionIO.out().println("ERROR: Please enter 'y' or 'n'.");
         }
     }
     
     public static String getChoiceInput(String prompt, List<String> validOptions) {
         while (true) {
-            System.out.print(prompt + ": ");
-            String input = scanner.nextLine().trim().toLowerCase();
+            SessionIO.out().print(prompt + ": ");
+            String input = SessionIO.readLine().trim().toLowerCase();
 
             for (String option : validOptions) {
                 if (input.equalsIgnoreCase(option)) {
@@ -104,7 +102,7 @@ public class InputUtil {
                 }
             }
 
-            System.out.println("ERROR: Invalid option. Valid options are: " + String.join(", ", validOptions));
+            SessionIO.out().println("ERROR: Invalid option. Valid options are: " + String.join(", ", validOptions));
         }
     }
 
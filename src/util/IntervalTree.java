@@ -0,0 +1,182 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Set of closed intervals [start, end], each tagged with a key, supporting overlap queries in O(log n + k).
+ * Implemented as an AVL tree ordered by (start, end, key), where every node also records the largest
+ * end point in its subtree so that whole subtrees ending before the query can be skipped.
+ * Not thread-safe; callers synchronize externally.
+ * @param <K> The key identifying each interval, e.g. a project name.
+ */
+public class IntervalTree<K extends Comparable<K>> {
+
+    private static final class Node<K> {
+        final long start;
+        final long end;
+        final K key;
+        long maxEnd;
+        int height = 1;
+        Node<K> left;
+        Node<K> right;
+
+        Node(long start, long end, K key) {
+            this.start = start;
+            this.end = end;
+            this.key = key;
+            this.maxEnd = end;
+        }
+    }
+
+    private Node<K> root;
+    private int size;
+
+    /**
+     * Adds an interval. Reversed bounds are swapped; adding an identical (start, end, key) twice has no effect.
+     */
+    public void insert(long start, long end, K key) {
+        if (start > end) {
+            long swap = start;
+            start = end;
+            end = swap;
+        }
+        root = insert(root, start, end, key);
+    }
+
+    /**
+     * Removes an interval previously added with the same bounds and key.
+     * @return True if it was present.
+     */
+    public boolean remove(long start, long end, K key) {
+        if (start > end) {
+            long swap = start;
+            start = end;
+            end = swap;
+        }
+        int before = size;
+        root = remove(root, start, end, key);
+        return size < before;
+    }
+
+    /**
+     * @return The keys of all intervals sharing at least one point with [start, end], in start order.
+     */
+    public List<K> findOverlapping(long start, long end) {
+        if (start > end) {
+            long swap = start;
+            start = end;
+            end = swap;
+        }
+        List<K> result = new ArrayList<>();
+        collect(root, start, end, result);
+        return result;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private void collect(Node<K> node, long start, long end, List<K> result) {
+        // Nothing in this subtree ends at or after the query start
+        if (node == null || node.maxEnd < start) return;
+        collect(node.left, start, end, result);
+        // Nodes to the right start no earlier than this one
+        if (node.start > end) return;
+        if (node.end >= start) result.add(node.key);
+        collect(node.right, start, end, result);
+    }
+
+    private int compare(long start, long end, K key, Node<K> node) {
+        if (start != node.start) return Long.compare(start, node.start);
+        if (end != node.end) return Long.compare(end, node.end);
+        return key.compareTo(node.key);
+    }
+
+    private Node<K> insert(Node<K> node, long start, long end, K key) {
+        if (node == null) {
+            size++;
+            return new Node<>(start, end, key);
+        }
+        int cmp = compare(start, end, key, node);
+        if (cmp < 0) {
+            node.left = insert(node.left, start, end, key);
+        } else if (cmp > 0) {
+            node.right = insert(node.right, start, end, key);
+        } else {
+            return node;
+        }
+        return rebalance(node);
+    }
+
+    private Node<K> remove(Node<K> node, long start, long end, K key) {
+        if (node == null) return null;
+        int cmp = compare(start, end, key, node);
+        if (cmp < 0) {
+            node.left = remove(node.left, start, end, key);
+        } else if (cmp > 0) {
+            node.right = remove(node.right, start, end, key);
+        } else {
+            size--;
+            if (node.left == null) return node.right;
+            if (node.right == null) return node.left;
+            // Replace with the in-order successor
+            Node<K> successor = node.right;
+            while (successor.left != null) successor = successor.left;
+            Node<K> replacement = new Node<>(successor.start, successor.end, successor.key);
+            size++; // Removing the successor below decrements again
+            replacement.right = remove(node.right, successor.start, successor.end, successor.key);
+            replacement.left = node.left;
+            return rebalance(replacement);
+        }
+        return rebalance(node);
+    }
+
+    private Node<K> rebalance(Node<K> node) {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) node.left = rotateLeft(node.left);
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) node.right = rotateRight(node.right);
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private Node<K> rotateRight(Node<K> node) {
+        Node<K> pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private Node<K> rotateLeft(Node<K> node) {
+        Node<K> pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private void update(Node<K> node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        long maxEnd = node.end;
+        if (node.left != null) maxEnd = Math.max(maxEnd, node.left.maxEnd);
+        if (node.right != null) maxEnd = Math.max(maxEnd, node.right.maxEnd);
+        node.maxEnd = maxEnd;
+    }
+
+    private int height(Node<K> node) {
+        return node == null ? 0 : node.height;
+    }
+}
@@ -0,0 +1,181 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+
+/**
+ * Hash map from primitive {@code long} keys to non-null values, using open addressing with linear probing.
+ * Keys and values sit in two parallel arrays, so an entry costs 12-16 bytes of table instead of the node,
+ * boxed key and table slot of a {@code HashMap}. Removal shifts later entries back, so no tombstones build up.
+ * Not thread-safe; callers synchronize externally. {@link #get} never loops more than the table size, so it
+ * may be used for optimistic reads that are validated afterwards.
+ * @param <V> The value type.
+ */
+public class LongObjectMap<V> {
+
+    private static final int MIN_CAPACITY = 16;
+    // Kept at most half full so probe sequences stay short
+    private static final int MAX_LOAD_PERCENT = 50;
+
+    private long[] keys;
+    private Object[] values; // null marks an empty slot
+    private int size;
+
+    public LongObjectMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongObjectMap(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * MAX_LOAD_PERCENT / 100 < expectedSize) {
+            capacity <<= 1;
+        }
+        keys = new long[capacity];
+        values = new Object[capacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        long[] k = keys;
+        Object[] v = values;
+        int mask = k.length - 1;
+        int slot = slotOf(key, mask);
+        for (int probes = 0; probes < k.length; probes++) {
+            Object value = v[slot];
+            if (value == null) return null;
+            if (k[slot] == key) return (V) value;
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    /**
+     * @return The previous value for the key, or null if there was none.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("LongObjectMap does not hold null values.");
+        }
+        int mask = keys.length - 1;
+        int slot = slotOf(key, mask);
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                V previous = (V) values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size * 100 > keys.length * MAX_LOAD_PERCENT) {
+            resize(keys.length << 1);
+        }
+        return null;
+    }
+
+    public V computeIfAbsent(long key, LongFunction<? extends V> factory) {
+        V value = get(key);
+        if (value == null) {
+            value = factory.apply(key);
+            put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * @return The removed value, or null if the key was absent.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int mask = keys.length - 1;
+        int slot = slotOf(key, mask);
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                V removed = (V) values[slot];
+                shiftBack(slot, mask);
+                size--;
+                return removed;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEachValue(Consumer<? super V> action) {
+        for (Object value : values) {
+            if (value != null) action.accept((V) value);
+        }
+    }
+
+    public List<V> values() {
+        List<V> result = new ArrayList<>(size);
+        forEachValue(result::add);
+        return result;
+    }
+
+    // Fills the freed slot with the next entry of the run that probed past it, repeating until the run ends
+    private void shiftBack(int freed, int mask) {
+        int slot = freed;
+        while (true) {
+            slot = (slot + 1) & mask;
+            if (values[slot] == null) break;
+            int home = slotOf(keys[slot], mask);
+            // Move the entry only if its home slot does not lie cyclically in (freed, slot]
+            boolean reachable = freed <= slot ? (home > freed && home <= slot) : (home > freed || home <= slot);
+            if (!reachable) {
+                keys[freed] = keys[slot];
+                values[freed] = values[slot];
+                freed = slot;
+            }
+        }
+        values[freed] = null;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        long[] newKeys = new long[capacity];
+        Object[] newValues = new Object[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] == null) continue;
+            int slot = slotOf(oldKeys[i], mask);
+            while (newValues[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            newKeys[slot] = oldKeys[i];
+            newValues[slot] = oldValues[i];
+        }
+        keys = newKeys;
+        values = newValues;
+    }
+
+    // Fibonacci hashing spreads sequential keys such as consecutive NRIC numbers evenly
+    private static int slotOf(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,56 @@
+package util;
+
+/**
+ * Packs an NRIC of the form {@code [STFG]\d{7}[A-Z]} into a single non-negative {@code long}, and back.
+ * Encoding is exact, so two NRICs are equal exactly when their codes are. Strings of any other form
+ * (such as a lower-case check letter, which {@link InputUtil#validateNric} tolerates) are not encodable.
+ */
+public final class NricCodec {
+
+    // Returned by encode() for strings that are not NRICs of the canonical form
+    public static final long NOT_ENCODABLE = -1L;
+
+    private static final String PREFIXES = "STFG";
+    private static final int DIGIT_RANGE = 10_000_000;
+    private static final int LETTERS = 26;
+
+    private NricCodec() {
+    }
+
+    /**
+     * @return The code of the NRIC, or {@link #NOT_ENCODABLE} if it is not of the form {@code [STFG]\d{7}[A-Z]}.
+     */
+    public static long encode(String nric) {
+        if (nric == null || nric.length() != 9) return NOT_ENCODABLE;
+        int prefix = PREFIXES.indexOf(nric.charAt(0));
+        if (prefix < 0) return NOT_ENCODABLE;
+        int digits = 0;
+        for (int i = 1; i < 8; i++) {
+            char c = nric.charAt(i);
+            if (c < '0' || c > '9') return NOT_ENCODABLE;
+            digits = digits * 10 + (c - '0');
+        }
+        char letter = nric.charAt(8);
+        if (letter < 'A' || letter > 'Z') return NOT_ENCODABLE;
+        return ((long) prefix * DIGIT_RANGE + digits) * LETTERS + (letter - 'A');
+    }
+
+    /**
+     * @throws IllegalArgumentException If the code was not produced by {@link #encode}.
+     */
+    public static String decode(long code) {
+        if (code < 0 || code >= (long) PREFIXES.length() * DIGIT_RANGE * LETTERS) {
+            throw new IllegalArgumentException("Not an NRIC code: " + code);
+        }
+        char[] nric = new char[9];
+        nric[8] = (char) ('A' + code % LETTERS);
+        long rest = code / LETTERS;
+        int digits = (int) (rest % DIGIT_RANGE);
+        for (int i = 7; i >= 1; i--) {
+            nric[i] = (char) ('0' + digits % 10);
+            digits /= 10;
+        }
+        nric[0] = PREFIXES.charAt((int) (rest / DIGIT_RANGE));
+        return new String(nric);
+    }
+}
@@ -0,0 +1,83 @@
+package util;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Map keyed by NRIC. NRICs of the canonical form are stored under their {@link NricCodec} code in a
+ * {@link LongObjectMap}, so no per-entry key string or node is kept; the rare NRIC that cannot be
+ * encoded falls back to an ordinary hash map. Lookups behave exactly as with the NRIC strings as keys.
+ * Not thread-safe; callers synchronize externally.
+ * @param <V> The value type; null values are not allowed.
+ */
+public class NricMap<V> {
+
+    private final LongObjectMap<V> encoded;
+    private final Map<String, V> other = new HashMap<>();
+
+    public NricMap() {
+        this.encoded = new LongObjectMap<>();
+    }
+
+    public NricMap(int expectedSize) {
+        this.encoded = new LongObjectMap<>(expectedSize);
+    }
+
+    public V get(String nric) {
+        long code = NricCodec.encode(nric);
+        return code == NricCodec.NOT_ENCODABLE ? other.get(nric) : encoded.get(code);
+    }
+
+    public V getOrDefault(String nric, V defaultValue) {
+        V value = get(nric);
+        return value != null ? value : defaultValue;
+    }
+
+    public V put(String nric, V value) {
+        long code = NricCodec.encode(nric);
+        if (code != NricCodec.NOT_ENCODABLE) return encoded.put(code, value);
+        if (value == null) throw new IllegalArgumentException("NricMap does not hold null values.");
+        return other.put(nric, value);
+    }
+
+    public V computeIfAbsent(String nric, Function<String, ? extends V> factory) {
+        V value = get(nric);
+        if (value == null) {
+            value = factory.apply(nric);
+            put(nric, value);
+        }
+        return value;
+    }
+
+    public V remove(String nric) {
+        long code = NricCodec.encode(nric);
+        return code == NricCodec.NOT_ENCODABLE ? other.remove(nric) : encoded.remove(code);
+    }
+
+    public boolean containsKey(String nric) {
+        return get(nric) != null;
+    }
+
+    public int size() {
+        return encoded.size() + other.size();
+    }
+
+    public void clear() {
+        encoded.clear();
+        other.clear();
+    }
+
+    public void forEachValue(Consumer<? super V> action) {
+        encoded.forEachValue(action);
+        other.values().forEach(action);
+    }
+
+    public List<V> values() {
+        List<V> result = encoded.values();
+        result.addAll(other.values());
+        return result;
+    }
+}
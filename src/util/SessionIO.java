@@ -0,0 +1,66 @@
+package util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+
+import exception.SessionClosedError;
+
+/**
+ * The input and output of the session running on the current thread. Views and {@link InputUtil} read
+ * and write through it instead of {@code System.in} and {@code System.out}, so each server session can
+ * have its own connection while a thread that was never bound keeps using the console.
+ */
+public final class SessionIO {
+
+    private static final SessionIO CONSOLE = new SessionIO(new BufferedReader(new InputStreamReader(System.in)), System.out);
+    private static final ThreadLocal<SessionIO> CURRENT = new ThreadLocal<>();
+
+    private final BufferedReader in;
+    private final PrintStream out;
+
+    public SessionIO(BufferedReader in, PrintStream out) {
+        this.in = in;
+        this.out = out;
+    }
+
+    // Binds a session to the current thread until unbind() is called
+    public static void bind(SessionIO session) {
+        CURRENT.set(session);
+    }
+
+    public static void unbind() {
+        CURRENT.remove();
+    }
+
+    public static SessionIO current() {
+        SessionIO session = CURRENT.get();
+        return session == null ? CONSOLE : session;
+    }
+
+    // False on threads serving a remote session
+    public static boolean isConsole() {
+        return current() == CONSOLE;
+    }
+
+    public static PrintStream out() {
+        return current().out;
+    }
+
+    /**
+     * Reads the next line of the current session, first flushing any prompt still buffered.
+     * @throws SessionClosedError If the input has ended, e.g. the client disconnected.
+     */
+    public static String readLine() throws SessionClosedError {
+        SessionIO session = current();
+        session.out.flush();
+        try {
+            String line = session.in.readLine();
+            if (line == null) throw new SessionClosedError("Input closed.");
+            return line;
+        } catch (IOException e) {
+            throw new SessionClosedError("Failed to read input: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package util;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide dictionary of canonical strings for values that repeat across many rows, such as project names
+ * and neighborhoods. Every row naming the same project then holds the same instance, so millions of rows keep
+ * a few hundred strings alive, and {@code equals} between two canonical values returns on the identity check.
+ *
+ * Only meant for columns with few distinct values: once {@link #MAX_ENTRIES} values are held, new values are
+ * returned as given rather than added, so misuse on free-text columns cannot grow the heap without bound.
+ * Safe for concurrent use.
+ */
+public final class StringDictionary {
+
+    public static final int MAX_ENTRIES = 1 << 16;
+
+    private static final ConcurrentHashMap<String, String> CANONICAL = new ConcurrentHashMap<>();
+
+    private StringDictionary() {
+    }
+
+    /**
+     * @return The canonical instance equal to {@code value}, or null if {@code value} is null.
+     */
+    public static String canonical(String value) {
+        if (value == null) return null;
+        String existing = CANONICAL.get(value);
+        if (existing != null) return existing;
+        if (CANONICAL.size() >= MAX_ENTRIES) return value;
+        existing = CANONICAL.putIfAbsent(value, value);
+        return existing != null ? existing : value;
+    }
+
+    public static int size() {
+        return CANONICAL.size();
+    }
+}
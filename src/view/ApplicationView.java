@@ -13,26 +13,27 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import util.SessionIO;
 
 public class ApplicationView extends BaseView {
 
     // Method to display brief summary of an application
     public void displayApplicationSummary(Application application, String applicantName) {
-        System.out.println(application.getDisplaySummary(applicantName));
+        SessionIO.out().println(application.getDisplaySummary(applicantName));
     }
 
     // Method to display detailed information of a specific application
     public void displayApplicationDetails(Application application, Project project, User applicant) {
-        System.out.println("\n--- Application Details ---");
-        System.out.println("Applicant: " + applicant.getName() + " (" + applicant.getNric() + ")");
-        System.out.println("Age: " + applicant.getAge());
-        System.out.println("Marital Status: " + applicant.getMaritalStatus());
-        System.out.println("Project: " + project.getProjectName() + " (" + project.getNeighborhood() + ")");
-        System.out.println("Flat Type Applied For: " + application.getFlatType().toString());
-        System.out.println("Application Status: " + application.getStatus());
+        SessionIO.out().println("\n--- Application Details ---");
+        SessionIO.out().println("Applicant: " + applicant.getName() + " (" + applicant.getNric() + ")");
+        SessionIO.out().println("Age: " + applicant.getAge());
+        SessionIO.out().println("Marital Status: " + applicant.getMaritalStatus());
+        SessionIO.out().println("Project: " + project.getProjectName() + " (" + project.getNeighborhood() + ")");
+        SessionIO.out().println("Flat Type Applied For: " + application.getFlatType().toString());
+        SessionIO.out().println("Application Status: " + application.getStatus());
 
         if (application.isRequestWithdrawal()) {
-            System.out.println("Withdrawal Requested: Yes (Pending Manager Action)");
+            SessionIO.out().println("Withdrawal Requested: Yes (Pending Manager Action)");
         }
     }
 
@@ -43,19 +44,19 @@ public class ApplicationView extends BaseView {
             return null;
         }
 
-        System.out.println("\n--- Select Application to " + actionVerb + " ---");
+        SessionIO.out().println("\n--- Select Application to " + actionVerb + " ---");
         int index = 1;
         for (Application app : applications) {
             Optional<User> applicantOpt = userRepo.findUserByNric(app.getApplicantNric());
             String applicantName = applicantOpt.map(User::getName).orElse("Unknown Applicant");
 
-            System.out.print(index + ". ");
+            SessionIO.out().print(index + ". ");
             displayApplicationSummary(app, applicantName);
             index++;
         }
 
-        System.out.println("0. Cancel");
-        System.out.println("------------------------------------");
+        SessionIO.out().println("0. Cancel");
+        SessionIO.out().println("------------------------------------");
 
         int choice;
         while (true) {
@@ -99,7 +100,7 @@ public class ApplicationView extends BaseView {
             int index = 1;
             for (FlatType type : availableTypes) {
                 optionMap.put(index, type);
-                System.out.println(index + ". " + type.toString());
+                SessionIO.out().println(index + ". " + type.toString());
                 index++;
             }
 
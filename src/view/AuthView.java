@@ -1,11 +1,9 @@
 package view;
 
 import util.InputUtil;
-import java.util.Scanner;
+import util.SessionIO;
 
 public class AuthView extends BaseView {
-    // Create Scanner instance for reading user input
-    private static final Scanner scanner = new Scanner(System.in);
 
     /** 
      * Prompts for NRIC and password and returns both values
@@ -45,16 +43,16 @@ public class AuthView extends BaseView {
      * Helper method to get input from the user.
      */
     public String getInput(String prompt) {
-        System.out.print(prompt + ": ");
-        return scanner.nextLine().trim();
+        SessionIO.out().print(prompt + ": ");
+        return SessionIO.readLine().trim();
     }
 
     /**
      * Helper method to get a password (could be plain text for simplicity).
      */
     public String getPassword(String prompt) {
-        System.out.print(prompt + ": ");
-        return scanner.nextLine().trim();
+        SessionIO.out().print(prompt + ": ");
+        return SessionIO.readLine().trim();
     }
 }
 
@@ -4,6 +4,7 @@ import java.util.List;
 import java.util.Map;
 
 import common.Displayable;
+import util.SessionIO;
 
 public class BaseView {
 
@@ -20,7 +21,7 @@ public class BaseView {
         if (error) prefix = "ERROR: ";
         else if (warning) prefix = "WARNING: ";
         else if (info) prefix = "INFO: ";
-        System.out.println("\n" + prefix + message);
+        SessionIO.out().println("\n" + prefix + message);
     }
 
     /**
@@ -30,8 +31,8 @@ public class BaseView {
      * @return The user's input
      */
     public String getInput(String prompt) {
-        System.out.print(prompt + ": ");
-        return new java.util.Scanner(System.in).nextLine().trim();
+        SessionIO.out().print(prompt + ": ");
+        return SessionIO.readLine().trim();
     }
 
     /**
@@ -41,7 +42,7 @@ public class BaseView {
      * @return The user's password
      */
     public String getPassword() {
-        return new java.util.Scanner(System.in).nextLine().trim();
+        return SessionIO.readLine().trim();
     }
 
     /**
@@ -52,9 +53,9 @@ public class BaseView {
      * @return The 1-based index of the selected option or null if no valid selection
      */
     public Integer displayMenu(String title, List<String> options) {
-        System.out.println("\n--- " + title + " ---");
+        SessionIO.out().println("\n--- " + title + " ---");
         if (options.isEmpty()) {
-            System.out.println("No options available.");
+            SessionIO.out().println("No options available.");
             return null;
         }
 
@@ -64,17 +65,17 @@ public class BaseView {
         for (int i = 0; i < options.size(); i++) {
             String option = options.get(i);
             if (option.startsWith("---")) { // Handle separators
-                System.out.println("  " + option);
+                SessionIO.out().println("  " + option);
                 offset++;
             } else {
-                System.out.println((i + 1 - offset) + ". " + option);
+                SessionIO.out().println((i + 1 - offset) + ". " + option);
                 validIndices.add(i + 1 - offset);
             }
         }
-        System.out.println("--------------------");
+        SessionIO.out().println("--------------------");
 
         if (validIndices.isEmpty()) { // Only separators were present
-            System.out.println("No actionable options available.");
+            SessionIO.out().println("No actionable options available.");
             return null;
         }
 
@@ -104,8 +105,8 @@ public class BaseView {
         Integer input = null;
         while (input == null) {
             try {
-                System.out.print(prompt + ": ");
-                input = Integer.parseInt(new java.util.Scanner(System.in).nextLine().trim());
+                SessionIO.out().print(prompt + ": ");
+                input = Integer.parseInt(SessionIO.readLine().trim());
                 if (input < minVal || input > maxVal) {
                     displayMessage("Please enter a number between " + minVal + " and " + maxVal + ".", false, false, true);
                     input = null;
@@ -125,9 +126,9 @@ public class BaseView {
      * @param emptyMessage The message when the list is empty
      */
     public void displayList(String title, List<Object> items, String emptyMessage) {
-        System.out.println("\n--- " + title + " ---");
+        SessionIO.out().println("\n--- " + title + " ---");
         if (items.isEmpty()) {
-            System.out.println(emptyMessage);
+            SessionIO.out().println(emptyMessage);
         } else {
             for (int i = 0; i < items.size(); i++) {
                 String displayStr = items.get(i).toString(); // Directly using toString() method
@@ -135,10 +136,10 @@ public class BaseView {
                 if (items.get(i) instanceof Displayable) {
                     displayStr = ((Displayable) items.get(i)).getDisplaySummary();
                 }
-                System.out.println((i + 1) + ". " + displayStr);
+                SessionIO.out().println((i + 1) + ". " + displayStr);
             }
         }
-        System.out.println("--------------------");
+        SessionIO.out().println("--------------------");
     }
 
     /**
@@ -148,9 +149,9 @@ public class BaseView {
      * @param dataDict The dictionary to display
      */
     public void displayDict(String title, Map<String, Object> dataDict) {
-        System.out.println("\n--- " + title + " ---");
+        SessionIO.out().println("\n--- " + title + " ---");
         if (dataDict.isEmpty()) {
-            System.out.println("(No details)");
+            SessionIO.out().println("(No details)");
         } else {
             int maxKeyLen = 0;
             for (String key : dataDict.keySet()) {
@@ -160,21 +161,21 @@ public class BaseView {
             for (Map.Entry<String, Object> entry : dataDict.entrySet()) {
                 String value = entry.getValue().toString();
                 String[] valueLines = value.split("\n");
-                System.out.println("  " + String.format("%-" + maxKeyLen + "s", entry.getKey()) + " : " + valueLines[0]);
+                SessionIO.out().println("  " + String.format("%-" + maxKeyLen + "s", entry.getKey()) + " : " + valueLines[0]);
                 for (int i = 1; i < valueLines.length; i++) {
-                    System.out.println("  " + " ".repeat(maxKeyLen + 3) + valueLines[i]);
+                    SessionIO.out().println("  " + " ".repeat(maxKeyLen + 3) + valueLines[i]);
                 }
             }
         }
-        System.out.println("-".repeat(title.length() + 6));
+        SessionIO.out().println("-".repeat(title.length() + 6));
     }
 
     /**
      * Pauses execution until the user presses Enter.
      */
     public void pauseForUser() {
-        System.out.print("\nPress Enter to continue...");
-        new java.util.Scanner(System.in).nextLine();
+        SessionIO.out().print("\nPress Enter to continue...");
+        SessionIO.readLine();
     }
 }
 
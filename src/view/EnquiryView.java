@@ -5,13 +5,14 @@ import util.InputUtil;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
+import util.SessionIO;
 
 public class EnquiryView extends BaseView {
     /** 
      * Displays a brief summary of an enquiry for lists.
      */
     public void displayEnquirySummary(Enquiry enquiry) {
-        System.out.println(enquiry.getDisplaySummary());
+        SessionIO.out().println(enquiry.getDisplaySummary());
     }
 
     /** 
@@ -39,14 +40,14 @@ public class EnquiryView extends BaseView {
             return null;
         }
 
-        System.out.println("\n--- Select Enquiry (by ID) to " + actionVerb + " ---");
+        SessionIO.out().println("\n--- Select Enquiry (by ID) to " + actionVerb + " ---");
         Map<Integer, Enquiry> enquiryMap = new HashMap<>(); // Map ID to enquiry object
         for (Enquiry enq : enquiries) {
             this.displayEnquirySummary(enq); // Display summary
             enquiryMap.put(enq.getEnquiryId(), enq);
         }
-        System.out.println("  ID: 0    | Cancel");
-        System.out.println("--------------------------------------------------");
+        SessionIO.out().println("  ID: 0    | Cancel");
+        SessionIO.out().println("--------------------------------------------------");
 
         while (true) {
             int enquiryId = InputUtil.getValidIntegerInput("Enter the ID of the enquiry (or 0 to cancel)");
@@ -8,28 +8,29 @@ import common.FlatType;
 import util.InputUtil;
 import java.util.HashMap;
 import java.util.Map;
+import util.SessionIO;
 
 public class ManagerView extends BaseView {
     /** 
      * Displays officer registration details in the context of approval/rejection.
      */
     public void displayOfficerRegistrationForApproval(Registration registration, User officer, Project project) {
-        System.out.println("\n--- Officer Registration for Review ---");
+        SessionIO.out().println("\n--- Officer Registration for Review ---");
         Map<String, Object> details = new HashMap<>();
         details.put("Project", project.getProjectName() + " (" + project.getNeighborhood() + ")");
         details.put("Officer", officer.getName() + " (" + officer.getNric() + ")");
         details.put("Current Status", registration.getStatus().toString());
-        details.put("Project Officer Slots", project.getOfficerNrics().size() + " / " + project.getOfficerSlot());
+        details.put("Project Officer Slots", project.getOfficerNricsView().size() + " / " + project.getOfficerSlot());
         
         this.displayDict("Registration Details", details);
-        System.out.println("---------------------------------------");
+        SessionIO.out().println("---------------------------------------");
     }
 
     /** 
      * Displays application details in the context of approval/rejection.
      */
     public void displayApplicationForApproval(Application application, User applicant, Project project) {
-        System.out.println("\n--- Application for Review ---");
+        SessionIO.out().println("\n--- Application for Review ---");
         int units = project.getFlatDetails(application.getFlatType())[0]; // [0] = units, [1] = price
 
         
@@ -45,14 +46,14 @@ public class ManagerView extends BaseView {
         }
         
         this.displayDict("Application Details", details);
-        System.out.println("-----------------------------");
+        SessionIO.out().println("-----------------------------");
     }
 
     /** 
      * Displays withdrawal request details in the context of approval/rejection.
      */
     public void displayWithdrawalRequestForApproval(Application application, User applicant, Project project) {
-        System.out.println("\n--- Withdrawal Request for Review ---");
+        SessionIO.out().println("\n--- Withdrawal Request for Review ---");
         Map<String, Object> details = new HashMap<>();
         details.put("Applicant", applicant.getName() + " (" + applicant.getNric() + ")");
         details.put("Project", project.getProjectName());
@@ -61,7 +62,7 @@ public class ManagerView extends BaseView {
         details.put("** Withdrawal Requested **", "YES");
         
         this.displayDict("Withdrawal Request Details", details);
-        System.out.println("------------------------------------");
+        SessionIO.out().println("------------------------------------");
     }
 }
 
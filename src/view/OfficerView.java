@@ -8,6 +8,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import util.SessionIO;
 
 public class OfficerView extends BaseView {
     /** 
@@ -15,7 +16,7 @@ public class OfficerView extends BaseView {
      */
     public void displayRegistrationSummary(Registration registration, String officerName) {
         // Use model's display method
-        System.out.println(registration.getDisplaySummary(officerName));
+        SessionIO.out().println(registration.getDisplaySummary(officerName));
     }
 
     /** 
@@ -40,20 +41,20 @@ public class OfficerView extends BaseView {
             return null;
         }
 
-        System.out.println("\n--- Select Registration to " + actionVerb + " ---");
+        SessionIO.out().println("\n--- Select Registration to " + actionVerb + " ---");
         Map<Integer, Registration> regMap = new HashMap<>();
         for (int i = 0; i < registrations.size(); i++) {
             Registration reg = registrations.get(i);
             Optional<User> officerOpt = userRepo.findUserByNric(reg.getOfficerNric());
             String officerName = officerOpt.map(User::getName).orElse("Unknown Officer");
 
-            System.out.print((i + 1) + ". ");
+            SessionIO.out().print((i + 1) + ". ");
             displayRegistrationSummary(reg, officerName);
             regMap.put(i + 1, reg);
         }
 
-        System.out.println("0. Cancel");
-        System.out.println("------------------------------------");
+        SessionIO.out().println("0. Cancel");
+        SessionIO.out().println("------------------------------------");
 
         while (true) {
             int choice = InputUtil.getValidIntegerInput("Enter the number of the registration (or 0 to cancel)", 0, registrations.size());
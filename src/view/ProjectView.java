@@ -7,11 +7,12 @@ import util.DateUtil;
 import util.InputUtil;
 
 import java.util.*;
+import util.SessionIO;
 
 public class ProjectView extends BaseView {
 
     public void displayProjectSummary(Project project) {
-        System.out.println(project.getDisplaySummary());
+        SessionIO.out().println(project.getDisplaySummary());
     }
 
     public void displayProjectDetails(Project project, UserRole role, String applicantMaritalStatus) {
@@ -44,10 +45,10 @@ public class ProjectView extends BaseView {
         }
 
         if (role == UserRole.HDB_MANAGER || role == UserRole.HDB_OFFICER) {
-            int assigned = project.getOfficerNrics().size();
+            int assigned = project.getOfficerNricsView().size();
             int available = project.getAvailableOfficerSlots();
             details.put("Officer Slots", assigned + " / " + project.getOfficerSlot() + " (Available: " + available + ")");
-            details.put("Assigned Officers (NRIC)", project.getOfficerNrics().isEmpty() ? "None" : String.join(", ", project.getOfficerNrics()));
+            details.put("Assigned Officers (NRIC)", project.getOfficerNricsView().isEmpty() ? "None" : String.join(", ", project.getOfficerNricsView()));
         }
 
         this.displayDict("Project Details: " + project.getProjectName(), details);
@@ -87,14 +88,14 @@ public class ProjectView extends BaseView {
             return null;
         }
 
-        System.out.println("\n--- Select Project to " + actionVerb + " ---");
+        SessionIO.out().println("\n--- Select Project to " + actionVerb + " ---");
         Map<Integer, Project> projectMap = new LinkedHashMap<>();
         for (int i = 0; i < projects.size(); i++) {
-            System.out.print((i + 1) + ". ");
+            SessionIO.out().print((i + 1) + ". ");
             displayProjectSummary(projects.get(i));
             projectMap.put(i + 1, projects.get(i));
         }
-        System.out.println(" 0. Cancel");
+        SessionIO.out().println(" 0. Cancel");
 
         while (true) {
             int choice = InputUtil.getValidIntegerInput("Enter the number of the project (or 0 to cancel)", 0, projects.size());
@@ -2,15 +2,16 @@ package view;
 
 import util.InputUtil;
 import java.util.*;
+import util.SessionIO;
 
 public class ReportView extends BaseView {
 
     public void displayReport(String title, List<Map<String, Object>> reportData, List<String> headers) {
-        System.out.println("\n--- " + title + " ---");
+        SessionIO.out().println("\n--- " + title + " ---");
 
         if (reportData.isEmpty()) {
-            System.out.println("No data found for this report.");
-            System.out.println("-".repeat(title.length() + 6));
+            SessionIO.out().println("No data found for this report.");
+            SessionIO.out().println("-".repeat(title.length() + 6));
             return;
         }
 
@@ -32,8 +33,8 @@ public class ReportView extends BaseView {
         for (String header : headers) {
             headerLine.append(String.format("%-" + widths.get(header) + "s | ", header));
         }
-        System.out.println(headerLine.toString().stripTrailing());
-        System.out.println("-".repeat(headerLine.length()));
+        SessionIO.out().println(headerLine.toString().stripTrailing());
+        SessionIO.out().println("-".repeat(headerLine.length()));
 
         // Print data rows
         for (Map<String, Object> row : reportData) {
@@ -42,17 +43,17 @@ public class ReportView extends BaseView {
                 String value = String.valueOf(row.getOrDefault(header, ""));
                 rowLine.append(String.format("%-" + widths.get(header) + "s | ", value));
             }
-            System.out.println(rowLine.toString().stripTrailing());
+            SessionIO.out().println(rowLine.toString().stripTrailing());
         }
 
-        System.out.println("-".repeat(headerLine.length()));
-        System.out.println("Total Records: " + reportData.size());
-        System.out.println("-".repeat(title.length() + 6));
+        SessionIO.out().println("-".repeat(headerLine.length()));
+        SessionIO.out().println("Total Records: " + reportData.size());
+        SessionIO.out().println("-".repeat(title.length() + 6));
     }
 
     public Map<String, String> promptReportFilters() {
         displayMessage("\n--- Generate Booking Report Filters ---", false, true, false);
-        System.out.println("(Leave blank for no filter on that field)");
+        SessionIO.out().println("(Leave blank for no filter on that field)");
         Map<String, String> filters = new HashMap<>();
 
         try {